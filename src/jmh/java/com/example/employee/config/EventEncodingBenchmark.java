@@ -0,0 +1,67 @@
+package com.example.employee.config;
+
+import com.example.employee.model.EmployeeEvent;
+import com.example.employee.model.EventTypes;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.ContentTypeDelegatingMessageConverter;
+
+/**
+ * Employee events through the converter {@link RabbitMQConfig#converter(String)} builds, once per
+ * {@code employee.events.content-type}. Message sizes are printed at setup, since JMH only reports
+ * time.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EventEncodingBenchmark {
+
+    @Param({MessageProperties.CONTENT_TYPE_JSON, SmileMessageConverter.CONTENT_TYPE})
+    public String contentType;
+
+    private ContentTypeDelegatingMessageConverter messageConverter;
+    private EmployeeEvent employeeEvent;
+    private Message message;
+
+    @Setup
+    public void setUp() {
+        messageConverter = new RabbitMQConfig(null).converter(contentType);
+        employeeEvent = new EmployeeEvent();
+        employeeEvent.setEventId(UUID.randomUUID());
+        employeeEvent.setEventType(EventTypes.UPDATED);
+        employeeEvent.setUuid(UUID.randomUUID());
+        employeeEvent.setEmail("john.doe@example.com");
+        employeeEvent.setFullName("John Doe");
+        employeeEvent.setBirthday("1990-01-31");
+        employeeEvent.setHobbies(List.of("chess", "hiking"));
+        message = messageConverter.toMessage(employeeEvent, new MessageProperties());
+        System.out.printf("%n%s event: %d bytes%n", contentType, message.getBody().length);
+    }
+
+    @Benchmark
+    public Message eventToMessage() {
+        return messageConverter.toMessage(employeeEvent, new MessageProperties());
+    }
+
+    @Benchmark
+    public Object eventFromMessage() {
+        return messageConverter.fromMessage(message);
+    }
+}
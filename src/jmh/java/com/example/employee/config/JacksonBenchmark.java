@@ -0,0 +1,95 @@
+package com.example.employee.config;
+
+import com.example.employee.model.EmployeeDTO;
+import com.example.employee.model.EmployeeEvent;
+import com.example.employee.model.EventTypes;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * JSON encoding of response bodies and employee events. The response mapper is built the way
+ * Spring Boot builds it, with {@link JacksonConfig#jacksonCustomizer()} applied.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JacksonBenchmark {
+
+    @Param({"1", "100"})
+    public int size;
+
+    private ObjectWriter listWriter;
+    private List<EmployeeDTO> employees;
+    private Jackson2JsonMessageConverter messageConverter;
+    private EmployeeEvent employeeEvent;
+    private Message message;
+
+    @Setup
+    public void setUp() {
+        final Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json();
+        new JacksonConfig().jacksonCustomizer().customize(builder);
+        final ObjectMapper objectMapper = builder.build();
+        employees = IntStream.range(0, size).mapToObj(JacksonBenchmark::employee).toList();
+        listWriter = objectMapper.writerFor(objectMapper.getTypeFactory()
+                .constructCollectionType(List.class, EmployeeDTO.class));
+
+        messageConverter = new Jackson2JsonMessageConverter();
+        employeeEvent = new EmployeeEvent();
+        employeeEvent.setEventId(UUID.randomUUID());
+        employeeEvent.setEventType(EventTypes.UPDATED);
+        employeeEvent.setUuid(UUID.randomUUID());
+        employeeEvent.setEmail("john.doe@example.com");
+        employeeEvent.setFullName("John Doe");
+        employeeEvent.setBirthday("1990-01-31");
+        employeeEvent.setHobbies(List.of("chess", "hiking"));
+        message = messageConverter.toMessage(employeeEvent, new MessageProperties());
+    }
+
+    @Benchmark
+    public byte[] serializeEmployeeList() throws JsonProcessingException {
+        return listWriter.writeValueAsBytes(employees);
+    }
+
+    @Benchmark
+    public Message eventToMessage() {
+        return messageConverter.toMessage(employeeEvent, new MessageProperties());
+    }
+
+    @Benchmark
+    public Object eventFromMessage() {
+        return messageConverter.fromMessage(message);
+    }
+
+    private static EmployeeDTO employee(final int i) {
+        final EmployeeDTO employeeDTO = new EmployeeDTO();
+        employeeDTO.setUuid(UUID.randomUUID());
+        employeeDTO.setEmail("employee" + i + "@example.com");
+        employeeDTO.setFullName("Employee Number" + i);
+        employeeDTO.setBirthday("1990-01-31");
+        employeeDTO.setHobbies(List.of("chess", "hiking", "photography"));
+        return employeeDTO;
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.employee.config;
+
+import com.example.employee.model.EmployeeDTO;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * A page of employees as the REST API serves it: JSON or Smile, optionally gzipped the way the
+ * server compresses responses above {@code server.compression.min-response-size}. {@code write}
+ * is the server's cost, {@code read} the caller's. Body sizes are printed at setup, since JMH only
+ * reports time.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ResponseFormatBenchmark {
+
+    @Param({"json", "smile"})
+    public String format;
+
+    @Param({"false", "true"})
+    public boolean gzip;
+
+    @Param({"100", "1000"})
+    public int size;
+
+    private ObjectMapper objectMapper;
+    private JavaType listType;
+    private List<EmployeeDTO> employees;
+    private byte[] body;
+
+    @Setup
+    public void setUp() throws IOException {
+        final JacksonConfig jacksonConfig = new JacksonConfig();
+        final Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json();
+        jacksonConfig.jacksonCustomizer().customize(builder);
+        objectMapper = switch (format) {
+            case "json" -> builder.build();
+            case "smile" -> jacksonConfig.smileHttpMessageConverter(builder).getObjectMapper();
+            default -> throw new IllegalArgumentException("Unknown format: " + format);
+        };
+        listType = objectMapper.getTypeFactory().constructCollectionType(List.class, EmployeeDTO.class);
+        employees = IntStream.range(0, size).mapToObj(ResponseFormatBenchmark::employee).toList();
+        body = write();
+        System.out.printf("%n%s%s, %d employees: %d bytes%n", format, gzip ? "+gzip" : "", size,
+            body.length);
+    }
+
+    @Benchmark
+    public byte[] write() throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(8192);
+        try (OutputStream out = gzip ? new GZIPOutputStream(bytes) : bytes) {
+            objectMapper.writerFor(listType).writeValue(out, employees);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Benchmark
+    public List<EmployeeDTO> read() throws IOException {
+        final InputStream bytes = new ByteArrayInputStream(body);
+        try (InputStream in = gzip ? new GZIPInputStream(bytes) : bytes) {
+            return objectMapper.readValue(in, listType);
+        }
+    }
+
+    private static EmployeeDTO employee(final int i) {
+        final EmployeeDTO employeeDTO = new EmployeeDTO();
+        employeeDTO.setUuid(UUID.randomUUID());
+        employeeDTO.setEmail("employee" + i + "@example.com");
+        employeeDTO.setFullName("Employee Number" + i);
+        employeeDTO.setBirthday("1990-01-31");
+        employeeDTO.setHobbies(List.of("chess", "hiking", "photography"));
+        return employeeDTO;
+    }
+}
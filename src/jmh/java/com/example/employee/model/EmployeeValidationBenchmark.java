@@ -0,0 +1,79 @@
+package com.example.employee.model;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Request body validation: the birthday format check alone and the full set of
+ * {@link EmployeeDTO} constraints, for a valid body and for one failing every field.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EmployeeValidationBenchmark {
+
+    private final DateFormatValidator dateFormatValidator = new DateFormatValidator();
+    private ValidatorFactory validatorFactory;
+    private Validator validator;
+    private EmployeeDTO valid;
+    private EmployeeDTO invalid;
+
+    @Setup
+    public void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+        valid = new EmployeeDTO();
+        valid.setEmail("john.doe@example.com");
+        valid.setFullName("John Doe");
+        valid.setBirthday("1990-01-31");
+        valid.setHobbies(List.of("chess", "hiking", "photography"));
+        invalid = new EmployeeDTO();
+        invalid.setEmail("john.doe");
+        invalid.setFullName("John");
+        invalid.setBirthday("31.01.1990");
+    }
+
+    @TearDown
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public boolean dateFormatValid() {
+        return dateFormatValidator.isValid("1990-01-31", null);
+    }
+
+    @Benchmark
+    public boolean dateFormatInvalid() {
+        return dateFormatValidator.isValid("31.01.1990", null);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<EmployeeDTO>> validateValid() {
+        return validator.validate(valid);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<EmployeeDTO>> validateInvalid() {
+        return validator.validate(invalid);
+    }
+}
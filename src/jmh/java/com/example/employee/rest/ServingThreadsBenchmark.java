@@ -0,0 +1,173 @@
+package com.example.employee.rest;
+
+import com.example.employee.config.JacksonConfig;
+import com.example.employee.config.RestExceptionHandler;
+import com.example.employee.config.VirtualThreadsConfig;
+import com.example.employee.model.EmployeeDTO;
+import com.example.employee.service.EmployeeExportService;
+import com.example.employee.service.EmployeeService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.http.HttpMessageConvertersAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.DispatcherServletAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.ServletWebServerFactoryAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.WebMvcAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+
+/**
+ * Platform vs virtual thread serving mode under 1k+ concurrent connections. Each operation sends
+ * one {@code GET /api/employees/{uuid}} on every connection at once and waits for all responses;
+ * the service call blocks for {@code latencyMs}, standing in for the JDBC round trip. With
+ * platform threads the burst queues behind {@code server.tomcat.threads.max} (200), with virtual
+ * threads all requests block concurrently. Client and server share the machine, so the gap
+ * only shows with a few spare cores; on a single core the request CPU cost dominates.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgs = {"-Xmx1g"})
+@State(Scope.Benchmark)
+public class ServingThreadsBenchmark {
+
+    @Param({"platform", "virtual"})
+    public String threads;
+
+    @Param({"1000", "2000"})
+    public int connections;
+
+    @Param({"50"})
+    public long latencyMs;
+
+    private ConfigurableApplicationContext context;
+    private ExecutorService clientExecutor;
+    private HttpClient httpClient;
+    private List<HttpRequest> requests;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        System.setProperty("benchmark.latency-ms", Long.toString(latencyMs));
+        context = new SpringApplicationBuilder(ServingApp.class)
+                .web(WebApplicationType.SERVLET)
+                .properties(
+                        "server.port=0",
+                        "spring.docker.compose.enabled=false",
+                        "spring.devtools.restart.enabled=false",
+                        "server.tomcat.max-connections=10000",
+                        "server.tomcat.accept-count=" + connections,
+                        "server.tomcat.max-keep-alive-requests=-1",
+                        "logging.level.root=WARN",
+                        VirtualThreadsConfig.ENABLED_PROPERTY + "=" + "virtual".equals(threads))
+                .run();
+        final int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        clientExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(clientExecutor)
+                .build();
+        requests = IntStream.range(0, connections)
+                .mapToObj(i -> HttpRequest.newBuilder(
+                        URI.create("http://localhost:" + port + "/api/employees/" + UUID.randomUUID()))
+                        .build())
+                .toList();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        clientExecutor.shutdownNow();
+        context.close();
+    }
+
+    @Benchmark
+    public int concurrentGets() {
+        final List<CompletableFuture<HttpResponse<Void>>> responses = requests.stream()
+                .map(request -> httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding()))
+                .toList();
+        int ok = 0;
+        for (final CompletableFuture<HttpResponse<Void>> response : responses) {
+            if (response.join().statusCode() == 200) {
+                ok++;
+            }
+        }
+        if (ok != connections) {
+            throw new IllegalStateException(ok + " of " + connections + " requests succeeded");
+        }
+        return ok;
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ImportAutoConfiguration({ServletWebServerFactoryAutoConfiguration.class,
+        DispatcherServletAutoConfiguration.class, WebMvcAutoConfiguration.class,
+        HttpMessageConvertersAutoConfiguration.class, JacksonAutoConfiguration.class,
+        TaskExecutionAutoConfiguration.class})
+    @Import({EmployeeResource.class, RestExceptionHandler.class, JacksonConfig.class,
+        VirtualThreadsConfig.class})
+    static class ServingApp {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean
+        EmployeeService employeeService() {
+            final long latencyMs = Long.getLong("benchmark.latency-ms");
+            return new EmployeeService(null, null, null, null, new SimpleMeterRegistry()) {
+                @Override
+                public EmployeeDTO get(final UUID uuid) {
+                    try {
+                        Thread.sleep(latencyMs);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    final EmployeeDTO employeeDTO = new EmployeeDTO();
+                    employeeDTO.setUuid(uuid);
+                    employeeDTO.setEmail("john.doe@example.com");
+                    employeeDTO.setFullName("John Doe");
+                    employeeDTO.setBirthday("1990-01-31");
+                    employeeDTO.setHobbies(List.of("chess"));
+                    return employeeDTO;
+                }
+            };
+        }
+
+        @Bean
+        EmployeeExportService employeeExportService(final ObjectMapper objectMapper) {
+            return new EmployeeExportService(null, null, null, null, objectMapper);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.employee.service;
+
+import com.example.employee.domain.Employee;
+import com.example.employee.model.EmployeeDTO;
+import com.example.employee.model.EmployeeEvent;
+import com.example.employee.model.EventTypes;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Entity/DTO/event mapping done on every read, write and published event.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EmployeeMappingBenchmark {
+
+    private Employee employee;
+    private EmployeeDTO employeeDTO;
+
+    @Setup
+    public void setUp() {
+        employee = new Employee();
+        employee.setUuid(UUID.randomUUID());
+        employee.setEmail("john.doe@example.com");
+        employee.setFullName("John Doe");
+        employee.setBirthday("1990-01-31");
+        employee.setHobbies(List.of("chess", "hiking", "photography"));
+        employeeDTO = EmployeeService.mapToDTO(employee, new EmployeeDTO());
+    }
+
+    @Benchmark
+    public EmployeeDTO mapToDTO() {
+        return EmployeeService.mapToDTO(employee, new EmployeeDTO());
+    }
+
+    @Benchmark
+    public Employee mapToEntity() {
+        return EmployeeService.mapToEntity(employeeDTO, new Employee());
+    }
+
+    @Benchmark
+    public EmployeeEvent mapToEvent() {
+        return EmployeeService.mapToEvent(employee, new EmployeeEvent(), EventTypes.UPDATED);
+    }
+}
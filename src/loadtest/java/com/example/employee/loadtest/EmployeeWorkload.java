@@ -0,0 +1,132 @@
+package com.example.employee.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * Sends one request per {@link Operation} and keeps track of the employees that exist, so gets,
+ * updates and deletes address real rows.
+ */
+final class EmployeeWorkload {
+
+    private static final String JSON = "application/json";
+    private static final int BATCH_SIZE = 1000;
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private final HttpClient httpClient;
+    private final URI employees;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    // unique per run, so emails never collide with rows of an earlier run on the same database
+    private final String run = Long.toHexString(System.nanoTime());
+    private final AtomicLong sequence = new AtomicLong();
+    private final UuidPool uuids = new UuidPool();
+
+    EmployeeWorkload(final HttpClient httpClient, final URI baseUri) {
+        this.httpClient = httpClient;
+        this.employees = baseUri.resolve("/api/employees");
+    }
+
+    /** Creates {@code count} employees through the batch endpoint. */
+    void seed(final int count) throws IOException, InterruptedException {
+        for (int created = 0; created < count; created += BATCH_SIZE) {
+            final List<String> batch = new ArrayList<>();
+            for (int i = created; i < Math.min(count, created + BATCH_SIZE); i++) {
+                batch.add(employeeJson());
+            }
+            final HttpResponse<String> response = send(HttpRequest.newBuilder(URI.create(employees + "/batch"))
+                .header("Content-Type", JSON)
+                .POST(HttpRequest.BodyPublishers.ofString("[" + String.join(",", batch) + "]")));
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Seeding failed: " + response.body());
+            }
+            for (final JsonNode result : objectMapper.readTree(response.body())) {
+                if (result.hasNonNull("uuid")) {
+                    uuids.add(UUID.fromString(result.get("uuid").asText()));
+                }
+            }
+        }
+    }
+
+    /**
+     * @return whether the response had a 2xx status
+     */
+    boolean execute(final Operation operation) throws IOException, InterruptedException {
+        return switch (operation) {
+            case CREATE -> {
+                final HttpResponse<String> response = send(HttpRequest.newBuilder(employees)
+                    .header("Content-Type", JSON)
+                    .POST(HttpRequest.BodyPublishers.ofString(employeeJson())));
+                if (response.statusCode() == 201) {
+                    uuids.add(UUID.fromString(objectMapper.readTree(response.body()).get("uuid").asText()));
+                }
+                yield isSuccess(response);
+            }
+            case GET -> isSuccess(send(HttpRequest.newBuilder(employee(uuids.random())).GET()));
+            case LIST -> isSuccess(send(HttpRequest.newBuilder(URI.create(employees + "?limit=50")).GET()));
+            case UPDATE -> isSuccess(send(HttpRequest.newBuilder(employee(uuids.random()))
+                .header("Content-Type", "application/merge-patch+json")
+                .method("PATCH", HttpRequest.BodyPublishers.ofString(
+                    "{\"fullName\": \"Load Updated" + sequence.incrementAndGet() + "\"}"))));
+            // taken out of the pool first, so no other request addresses the row being deleted
+            case DELETE -> isSuccess(send(HttpRequest.newBuilder(employee(uuids.take())).DELETE()));
+        };
+    }
+
+    private URI employee(final UUID uuid) {
+        // an empty pool yields a 404, counted as an error of the operation
+        return URI.create(employees + "/" + (uuid != null ? uuid : new UUID(0, 0)));
+    }
+
+    private String employeeJson() {
+        return "{\"email\": \"load" + sequence.incrementAndGet() + "." + run + "@example.com\","
+            + " \"fullName\": \"Load Test\", \"birthday\": \"1990-01-01\", \"hobbies\": [\"load\"]}";
+    }
+
+    private HttpResponse<String> send(final HttpRequest.Builder request)
+        throws IOException, InterruptedException {
+        return httpClient.send(request.timeout(TIMEOUT).build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static boolean isSuccess(final HttpResponse<?> response) {
+        return response.statusCode() / 100 == 2;
+    }
+
+    /**
+     * Uuids of existing employees with O(1) random access and removal.
+     */
+    private static final class UuidPool {
+
+        private final List<UUID> uuids = new ArrayList<>();
+
+        synchronized void add(final UUID uuid) {
+            uuids.add(uuid);
+        }
+
+        synchronized UUID random() {
+            return uuids.isEmpty() ? null : uuids.get(ThreadLocalRandom.current().nextInt(uuids.size()));
+        }
+
+        synchronized UUID take() {
+            if (uuids.isEmpty()) {
+                return null;
+            }
+            final int index = ThreadLocalRandom.current().nextInt(uuids.size());
+            final UUID last = uuids.remove(uuids.size() - 1);
+            return index == uuids.size() ? last : uuids.set(index, last);
+        }
+
+    }
+
+}
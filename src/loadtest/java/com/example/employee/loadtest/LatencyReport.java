@@ -0,0 +1,161 @@
+package com.example.employee.loadtest;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+
+/**
+ * Latency histograms per operation, in microseconds, and the reports written from them.
+ * <p>
+ * {@code summary.txt} is for people, {@code summary.properties} is what baselines are stored as,
+ * and {@code <operation>.hgrm} holds the full percentile distribution in milliseconds, in the
+ * format HdrHistogram's plotter reads.
+ */
+final class LatencyReport {
+
+    static final String ALL = "all";
+
+    // anything slower is recorded as this, a timeout rather than a latency
+    private static final long HIGHEST_TRACKABLE_MICROS = 60_000_000;
+    private static final double MICROS_PER_MS = 1000.0;
+
+    private final Map<Operation, Histogram> histograms = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+    private final Histogram all = histogram();
+    private final LongAdder allErrors = new LongAdder();
+
+    LatencyReport(final Set<Operation> operations) {
+        for (final Operation operation : operations) {
+            histograms.put(operation, histogram());
+            errors.put(operation, new LongAdder());
+        }
+    }
+
+    void record(final Operation operation, final long latencyNanos, final boolean success) {
+        final long micros = Math.min(Math.max(latencyNanos / 1000, 1), HIGHEST_TRACKABLE_MICROS);
+        histograms.get(operation).recordValue(micros);
+        all.recordValue(micros);
+        if (!success) {
+            errors.get(operation).increment();
+            allErrors.increment();
+        }
+    }
+
+    /**
+     * Throughput and percentiles of every operation, keyed {@code <operation>.<figure>}.
+     */
+    Properties summary(final double elapsedSeconds) {
+        final Properties summary = new Properties();
+        histograms.forEach((operation, histogram) ->
+            summarize(summary, operation.key(), histogram, errors.get(operation).sum(), elapsedSeconds));
+        summarize(summary, ALL, all, allErrors.sum(), elapsedSeconds);
+        return summary;
+    }
+
+    private static void summarize(final Properties summary, final String key, final Histogram histogram,
+        final long errors, final double elapsedSeconds) {
+        summary.setProperty(key + ".count", Long.toString(histogram.getTotalCount()));
+        summary.setProperty(key + ".errors", Long.toString(errors));
+        // successful requests only: in open mode the request count is just the offered rate
+        summary.setProperty(key + ".throughput",
+            format((histogram.getTotalCount() - errors) / elapsedSeconds));
+        summary.setProperty(key + ".p50", format(histogram.getValueAtPercentile(50) / MICROS_PER_MS));
+        summary.setProperty(key + ".p99", format(histogram.getValueAtPercentile(99) / MICROS_PER_MS));
+        summary.setProperty(key + ".p999", format(histogram.getValueAtPercentile(99.9) / MICROS_PER_MS));
+        summary.setProperty(key + ".max", format(histogram.getMaxValue() / MICROS_PER_MS));
+    }
+
+    void write(final Path reportDir, final Properties summary) throws IOException {
+        Files.createDirectories(reportDir);
+        try (Writer writer = Files.newBufferedWriter(reportDir.resolve("summary.properties"))) {
+            summary.store(writer, "Load test summary, latencies in ms, throughput in requests/s");
+        }
+        try (PrintStream out = new PrintStream(Files.newOutputStream(reportDir.resolve("summary.txt")))) {
+            printTable(out, summary);
+        }
+        for (final Map.Entry<Operation, Histogram> entry : histograms.entrySet()) {
+            writeDistribution(reportDir.resolve(entry.getKey().key() + ".hgrm"), entry.getValue());
+        }
+        writeDistribution(reportDir.resolve(ALL + ".hgrm"), all);
+    }
+
+    void printTable(final PrintStream out, final Properties summary) {
+        out.printf("%-8s %10s %8s %12s %10s %10s %10s %10s%n",
+            "op", "count", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        final List<String> keys = new ArrayList<>();
+        histograms.keySet().forEach(operation -> keys.add(operation.key()));
+        keys.add(ALL);
+        for (final String key : keys) {
+            out.printf("%-8s %10s %8s %12s %10s %10s %10s %10s%n", key,
+                summary.getProperty(key + ".count"), summary.getProperty(key + ".errors"),
+                summary.getProperty(key + ".throughput"), summary.getProperty(key + ".p50"),
+                summary.getProperty(key + ".p99"), summary.getProperty(key + ".p999"),
+                summary.getProperty(key + ".max"));
+        }
+    }
+
+    private static void writeDistribution(final Path file, final Histogram histogram) throws IOException {
+        try (PrintStream out = new PrintStream(Files.newOutputStream(file))) {
+            histogram.outputPercentileDistribution(out, MICROS_PER_MS);
+        }
+    }
+
+    /**
+     * Figures of {@code current} worse than {@code baseline} by more than {@code maxRegression}:
+     * higher percentiles or lower throughput. Figures missing on either side are skipped.
+     */
+    static List<String> regressions(final Properties baseline, final Properties current,
+        final double maxRegression) {
+        final List<String> regressions = new ArrayList<>();
+        for (final String key : baseline.stringPropertyNames()) {
+            final boolean latency = key.endsWith(".p50") || key.endsWith(".p99")
+                || key.endsWith(".p999");
+            final String value = current.getProperty(key);
+            if (value == null || !latency && !key.endsWith(".throughput")) {
+                continue;
+            }
+            final double before = Double.parseDouble(baseline.getProperty(key));
+            final double now = Double.parseDouble(value);
+            final boolean regressed = latency
+                ? now > before * (1 + maxRegression)
+                : now < before * (1 - maxRegression);
+            if (regressed) {
+                regressions.add(String.format(Locale.ROOT, "%s: %s -> %s (%+.0f%%)", key,
+                    baseline.getProperty(key), value, (now / before - 1) * 100));
+            }
+        }
+        regressions.sort(null);
+        return regressions;
+    }
+
+    static Properties load(final Path file) throws IOException {
+        final Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file)) {
+            properties.load(reader);
+        }
+        return properties;
+    }
+
+    private static Histogram histogram() {
+        return new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+    }
+
+    private static String format(final double value) {
+        return String.format(Locale.ROOT, "%.3f", value);
+    }
+
+}
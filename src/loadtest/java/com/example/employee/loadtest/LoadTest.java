@@ -0,0 +1,203 @@
+package com.example.employee.loadtest;
+
+import com.example.employee.EmployeeApplication;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.containers.RabbitMQContainer;
+import org.testcontainers.lifecycle.Startables;
+
+/**
+ * Starts the application against throwaway Postgres and RabbitMQ containers, drives a mix of
+ * create/get/list/update/delete requests at it and records the latency of every request.
+ * <p>
+ * In closed mode each client sends its next request once the previous response arrived, so a slow
+ * server lowers the offered load. In open mode requests start on a fixed schedule and latency is
+ * measured from the scheduled start, so time spent queueing behind a stalled server is counted
+ * rather than hidden (coordinated omission).
+ * <p>
+ * Reports go to {@code report-dir}. The summary is compared with the stored {@code baseline} and
+ * the process exits with status 1 when any throughput or percentile regressed by more than
+ * {@code max-regression}. Options are listed in {@link LoadTestOptions}.
+ */
+public final class LoadTest {
+
+    private LoadTest() {
+    }
+
+    public static void main(final String[] args) throws Exception {
+        final LoadTestOptions options = LoadTestOptions.parse(args);
+        final LatencyReport report = new LatencyReport(options.operations());
+        // read by devtools before the application properties are
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        try (PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+             RabbitMQContainer rabbit = new RabbitMQContainer("rabbitmq:3.12-management-alpine")) {
+            Startables.deepStart(postgres, rabbit).join();
+            try (ConfigurableApplicationContext context = new SpringApplicationBuilder(EmployeeApplication.class)
+                .properties(
+                    "server.port=0",
+                    "spring.docker.compose.enabled=false",
+                    "spring.datasource.url=" + postgres.getJdbcUrl(),
+                    "spring.datasource.username=" + postgres.getUsername(),
+                    "spring.datasource.password=" + postgres.getPassword(),
+                    "spring.rabbitmq.host=" + rabbit.getHost(),
+                    "spring.rabbitmq.port=" + rabbit.getAmqpPort(),
+                    "spring.rabbitmq.username=" + rabbit.getAdminUsername(),
+                    "spring.rabbitmq.password=" + rabbit.getAdminPassword(),
+                    "logging.level.root=WARN",
+                    "logging.file.name=" + options.reportDir().resolve("app.log"))
+                .run();
+                 ExecutorService clientExecutor = Executors.newVirtualThreadPerTaskExecutor()) {
+                final int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+                final HttpClient httpClient = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .executor(clientExecutor)
+                    .build();
+                final EmployeeWorkload workload = new EmployeeWorkload(httpClient,
+                    URI.create("http://localhost:" + port));
+                System.out.printf("Seeding %d employees%n", options.seed());
+                workload.seed(options.seed());
+                System.out.printf("Running %s for %ds after %ds warmup%n", options.workload(),
+                    options.duration().toSeconds(), options.warmup().toSeconds());
+                run(options, workload, report);
+            }
+        }
+
+        final Properties summary = report.summary(options.duration().toNanos() / 1e9);
+        summary.putAll(options.workload());
+        report.write(options.reportDir(), summary);
+        report.printTable(System.out, summary);
+        System.out.println("Reports written to " + options.reportDir().toAbsolutePath());
+        System.exit(checkBaseline(options, summary) ? 0 : 1);
+    }
+
+    private static void run(final LoadTestOptions options, final EmployeeWorkload workload,
+        final LatencyReport report) {
+        final long start = System.nanoTime();
+        final long measureFrom = start + options.warmup().toNanos();
+        final long end = measureFrom + options.duration().toNanos();
+        switch (options.mode()) {
+            case CLOSED -> closedLoop(options, workload, report, measureFrom, end);
+            case OPEN -> openLoop(options, workload, report, start, measureFrom, end);
+        }
+    }
+
+    private static void closedLoop(final LoadTestOptions options, final EmployeeWorkload workload,
+        final LatencyReport report, final long measureFrom, final long end) {
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < options.concurrency(); i++) {
+                clients.execute(() -> {
+                    long started;
+                    while ((started = System.nanoTime()) < end) {
+                        final Operation operation = options.nextOperation();
+                        final boolean success = execute(workload, operation);
+                        if (started >= measureFrom) {
+                            report.record(operation, System.nanoTime() - started, success);
+                        }
+                    }
+                });
+            }
+        }
+    }
+
+    private static void openLoop(final LoadTestOptions options, final EmployeeWorkload workload,
+        final LatencyReport report, final long start, final long measureFrom, final long end) {
+        final long intervalNanos = TimeUnit.SECONDS.toNanos(1) / options.rate();
+        final Semaphore inFlight = new Semaphore(options.maxInFlight());
+        try (ExecutorService requests = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long i = 0; ; i++) {
+                final long scheduled = start + i * intervalNanos;
+                if (scheduled >= end) {
+                    break;
+                }
+                final long wait = scheduled - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                final Operation operation = options.nextOperation();
+                if (!inFlight.tryAcquire()) {
+                    // the server is this far behind; the request counts as failed, not as skipped
+                    if (scheduled >= measureFrom) {
+                        report.record(operation, System.nanoTime() - scheduled, false);
+                    }
+                    continue;
+                }
+                requests.execute(() -> {
+                    try {
+                        final boolean success = execute(workload, operation);
+                        if (scheduled >= measureFrom) {
+                            report.record(operation, System.nanoTime() - scheduled, success);
+                        }
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+        }
+    }
+
+    private static boolean execute(final EmployeeWorkload workload, final Operation operation) {
+        try {
+            return workload.execute(operation);
+        } catch (IOException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * @return whether the run may pass: no regression against the baseline, or no baseline yet
+     */
+    private static boolean checkBaseline(final LoadTestOptions options, final Properties summary)
+        throws IOException {
+        final Path baseline = options.baseline();
+        if (options.updateBaseline() || !Files.exists(baseline)) {
+            if (baseline.toAbsolutePath().getParent() != null) {
+                Files.createDirectories(baseline.toAbsolutePath().getParent());
+            }
+            Files.copy(options.reportDir().resolve("summary.properties"), baseline,
+                StandardCopyOption.REPLACE_EXISTING);
+            System.out.println("Baseline stored in " + baseline);
+            return true;
+        }
+        final Properties stored = LatencyReport.load(baseline);
+        for (final Map.Entry<String, String> parameter : options.workload().entrySet()) {
+            if (!Objects.equals(stored.getProperty(parameter.getKey()), parameter.getValue())) {
+                System.out.printf("Baseline %s was recorded with %s=%s, this run used %s%n", baseline,
+                    parameter.getKey(), stored.getProperty(parameter.getKey()), parameter.getValue());
+                return false;
+            }
+        }
+        final List<String> regressions = LatencyReport.regressions(stored, summary,
+            options.maxRegression());
+        Files.write(options.reportDir().resolve("regressions.txt"), regressions);
+        if (regressions.isEmpty()) {
+            System.out.printf("No regression beyond %.0f%% against %s%n", options.maxRegression() * 100,
+                baseline);
+            return true;
+        }
+        System.out.printf("Regressed beyond %.0f%% against %s:%n", options.maxRegression() * 100,
+            baseline);
+        regressions.forEach(regression -> System.out.println("  " + regression));
+        return false;
+    }
+
+}
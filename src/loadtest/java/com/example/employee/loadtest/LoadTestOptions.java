@@ -0,0 +1,128 @@
+package com.example.employee.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+
+/**
+ * Options of a load test run, given as {@code key=value} program arguments.
+ *
+ * @param mode           {@code closed}: {@code concurrency} clients each wait for their response
+ *                       before sending the next request; {@code open}: requests start at a fixed
+ *                       {@code rate} whether or not earlier ones completed
+ * @param rate           requests per second in open mode
+ * @param concurrency    clients in closed mode
+ * @param maxInFlight    open mode only: requests due while this many are outstanding fail
+ * @param warmup         load applied before recording starts
+ * @param duration       recorded load
+ * @param mix            relative weight of each operation
+ * @param seed           employees created before the warmup
+ * @param reportDir      where reports are written
+ * @param baseline       summary of an earlier run to compare against, created when missing
+ * @param maxRegression  allowed relative regression of any latency or throughput figure
+ * @param updateBaseline overwrite the baseline with this run instead of comparing
+ */
+record LoadTestOptions(Mode mode, int rate, int concurrency, int maxInFlight, Duration warmup,
+    Duration duration, Map<Operation, Integer> mix, int seed, Path reportDir, Path baseline,
+    double maxRegression, boolean updateBaseline) {
+
+    enum Mode { OPEN, CLOSED }
+
+    private static final Map<String, String> DEFAULTS = Map.ofEntries(
+        Map.entry("mode", "closed"),
+        Map.entry("rate", "200"),
+        Map.entry("concurrency", "32"),
+        Map.entry("max-in-flight", "2000"),
+        Map.entry("warmup-s", "10"),
+        Map.entry("duration-s", "60"),
+        Map.entry("mix", "create=10,get=50,list=20,update=15,delete=5"),
+        Map.entry("seed", "1000"),
+        Map.entry("report-dir", "target/loadtest"),
+        Map.entry("baseline", "src/loadtest/baseline.properties"),
+        Map.entry("max-regression", "0.2"),
+        Map.entry("update-baseline", "false"));
+
+    static LoadTestOptions parse(final String... args) {
+        final Map<String, String> values = new HashMap<>(DEFAULTS);
+        for (final String arg : args) {
+            final int separator = arg.indexOf('=');
+            if (separator < 1 || !DEFAULTS.containsKey(arg.substring(0, separator))) {
+                throw new IllegalArgumentException("Expected one of " + DEFAULTS.keySet()
+                    + " as key=value, got: " + arg);
+            }
+            values.put(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+        return new LoadTestOptions(
+            Mode.valueOf(values.get("mode").toUpperCase(Locale.ROOT)),
+            Integer.parseInt(values.get("rate")),
+            Integer.parseInt(values.get("concurrency")),
+            Integer.parseInt(values.get("max-in-flight")),
+            Duration.ofSeconds(Long.parseLong(values.get("warmup-s"))),
+            Duration.ofSeconds(Long.parseLong(values.get("duration-s"))),
+            parseMix(values.get("mix")),
+            Integer.parseInt(values.get("seed")),
+            Path.of(values.get("report-dir")),
+            Path.of(values.get("baseline")),
+            Double.parseDouble(values.get("max-regression")),
+            Boolean.parseBoolean(values.get("update-baseline")));
+    }
+
+    private static Map<Operation, Integer> parseMix(final String mix) {
+        final Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (final String entry : mix.split(",")) {
+            final String[] parts = entry.split("=");
+            final int weight = Integer.parseInt(parts[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("Negative weight in mix: " + entry);
+            }
+            weights.put(Operation.of(parts[0]), weight);
+        }
+        if (weights.values().stream().mapToInt(Integer::intValue).sum() == 0) {
+            throw new IllegalArgumentException("Mix has no operation: " + mix);
+        }
+        return weights;
+    }
+
+    /** Picks an operation with the probability of its weight in the mix. */
+    Operation nextOperation() {
+        final int total = mix.values().stream().mapToInt(Integer::intValue).sum();
+        int pick = ThreadLocalRandom.current().nextInt(total);
+        for (final Map.Entry<Operation, Integer> entry : mix.entrySet()) {
+            pick -= entry.getValue();
+            if (pick < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException("Unreachable");
+    }
+
+    /** Operations with a non-zero weight, in declaration order. */
+    Set<Operation> operations() {
+        return mix.entrySet().stream()
+            .filter(entry -> entry.getValue() > 0)
+            .map(Map.Entry::getKey)
+            .collect(Collectors.toCollection(() -> EnumSet.noneOf(Operation.class)));
+    }
+
+    /**
+     * Parameters a baseline is only comparable under. Durations are left out: a shorter run is
+     * noisier but measures the same thing.
+     */
+    Map<String, String> workload() {
+        final Map<String, String> workload = new HashMap<>();
+        workload.put("workload.mode", mode.name().toLowerCase(Locale.ROOT));
+        workload.put("workload.load", mode == Mode.OPEN ? rate + "/s" : concurrency + " clients");
+        workload.put("workload.mix", mix.toString());
+        workload.put("workload.seed", Integer.toString(seed));
+        return workload;
+    }
+
+}
@@ -0,0 +1,22 @@
+package com.example.employee.loadtest;
+
+import java.util.Locale;
+
+
+/**
+ * Requests the load test sends against {@code /api/employees}.
+ */
+enum Operation {
+
+    CREATE, GET, LIST, UPDATE, DELETE;
+
+    /** Name used in the {@code mix} option and in reports. */
+    String key() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    static Operation of(final String key) {
+        return valueOf(key.trim().toUpperCase(Locale.ROOT));
+    }
+
+}
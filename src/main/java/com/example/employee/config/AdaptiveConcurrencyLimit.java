@@ -0,0 +1,157 @@
+package com.example.employee.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.LongSupplier;
+
+
+/**
+ * Concurrency limit adjusted from observed latency, after the gradient limit of Netflix's
+ * concurrency-limits. Samples are averaged per window of at least {@value #WINDOW_SAMPLES} requests
+ * and {@value #WINDOW_MILLIS} ms; at the end of each window
+ * <pre>
+ *   gradient = clamp(1.5 * longRtt / windowRtt, 0.5, 1)
+ *   limit    = 0.8 * limit + 0.2 * (limit * gradient + sqrt(limit))
+ * </pre>
+ * so the limit shrinks while latency is above its long-term average and grows by a small queue
+ * allowance while it is not. A window in which {@code congested} reported requests queueing for a
+ * database connection counts as the steepest gradient, whatever the latency. The limit only grows
+ * while at least half of it is used.
+ */
+public class AdaptiveConcurrencyLimit {
+
+    static final int WINDOW_SAMPLES = 10;
+    static final long WINDOW_MILLIS = 250;
+
+    private static final double RTT_TOLERANCE = 1.5;
+    private static final double MIN_GRADIENT = 0.5;
+    private static final double SMOOTHING = 0.2;
+    private static final int LONG_WINDOWS = 600;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final BooleanSupplier congested;
+    private final LongSupplier nanoClock;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Counter rejected;
+    private volatile int limit;
+
+    // guarded by this
+    private double estimatedLimit;
+    private double longRttNanos;
+    private long windowStart;
+    private long windowRttNanos;
+    private int windowSamples;
+    private int windowMaxInFlight;
+
+    public AdaptiveConcurrencyLimit(final String kind, final int initialLimit, final int minLimit,
+            final int maxLimit, final BooleanSupplier congested, final MeterRegistry meterRegistry) {
+        this(kind, initialLimit, minLimit, maxLimit, congested, meterRegistry, System::nanoTime);
+    }
+
+    AdaptiveConcurrencyLimit(final String kind, final int initialLimit, final int minLimit,
+            final int maxLimit, final BooleanSupplier congested, final MeterRegistry meterRegistry,
+            final LongSupplier nanoClock) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.congested = congested;
+        this.nanoClock = nanoClock;
+        this.estimatedLimit = initialLimit;
+        this.limit = initialLimit;
+        this.windowStart = nanoClock.getAsLong();
+        Gauge.builder("employee.concurrency.limit", this, AdaptiveConcurrencyLimit::getLimit)
+                .description("Current limit of concurrent requests")
+                .tag("kind", kind)
+                .register(meterRegistry);
+        Gauge.builder("employee.concurrency.in.flight", inFlight, AtomicInteger::get)
+                .description("Requests currently admitted")
+                .tag("kind", kind)
+                .register(meterRegistry);
+        this.rejected = Counter.builder("employee.concurrency.rejected")
+                .description("Requests rejected as the limit was reached")
+                .tag("kind", kind)
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return whether the request is admitted; it must then be released exactly once
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            final int current = inFlight.get();
+            if (current >= limit) {
+                rejected.increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /** Releases a request whose latency says nothing about the database, such as a stream. */
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    public void release(final long latencyNanos) {
+        final int admitted = inFlight.getAndDecrement();
+        sample(latencyNanos, admitted);
+    }
+
+    private synchronized void sample(final long latencyNanos, final int admitted) {
+        windowRttNanos += latencyNanos;
+        windowSamples++;
+        windowMaxInFlight = Math.max(windowMaxInFlight, admitted);
+        final long now = nanoClock.getAsLong();
+        if (windowSamples < WINDOW_SAMPLES || now - windowStart < TimeUnit.MILLISECONDS.toNanos(WINDOW_MILLIS)) {
+            return;
+        }
+        update((double) windowRttNanos / windowSamples, windowMaxInFlight);
+        windowStart = now;
+        windowRttNanos = 0;
+        windowSamples = 0;
+        windowMaxInFlight = 0;
+    }
+
+    private void update(final double rttNanos, final int maxInFlight) {
+        if (longRttNanos == 0) {
+            longRttNanos = rttNanos;
+        } else {
+            longRttNanos += (rttNanos - longRttNanos) / LONG_WINDOWS;
+        }
+        // after a long overload the average is inflated; let it recover faster than it rose
+        if (longRttNanos / rttNanos > 2) {
+            longRttNanos *= 0.95;
+        }
+        final double gradient;
+        if (congested.getAsBoolean()) {
+            gradient = MIN_GRADIENT;
+        } else if (maxInFlight < estimatedLimit / 2) {
+            return;
+        } else {
+            gradient = Math.max(MIN_GRADIENT, Math.min(1.0, RTT_TOLERANCE * longRttNanos / rttNanos));
+        }
+        final double target = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit,
+                estimatedLimit * (1 - SMOOTHING) + target * SMOOTHING));
+        limit = (int) estimatedLimit;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getRejected() {
+        return (long) rejected.count();
+    }
+
+}
@@ -0,0 +1,22 @@
+package com.example.employee.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+
+/**
+ * Caches are Caffeine backed; size, TTL and statistics come from
+ * {@code spring.cache.caffeine.spec}, and hit/miss/eviction counters are published as
+ * {@code cache.*} actuator metrics.
+ * <p>
+ * The cache advice wraps the transaction advice, so evictions happen after commit and a
+ * concurrent read cannot put the pre-commit state back into the cache.
+ */
+@Configuration
+@EnableCaching(order = Ordered.LOWEST_PRECEDENCE - 1)
+public class CacheConfig {
+
+    public static final String EMPLOYEES = "employees";
+
+}
@@ -0,0 +1,112 @@
+package com.example.employee.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+
+/**
+ * Makes {@code server.compression.min-response-size} apply to bodies written by message converters.
+ * They flush after writing, which commits the response without a {@code Content-Length}, and
+ * Tomcat compresses responses of unknown length whatever their size. Flushes are ignored until the
+ * threshold was written, so a smaller body stays in Tomcat's response buffer until the request
+ * completes and goes out with its length, uncompressed.
+ */
+@Component
+@ConditionalOnProperty(name = "server.compression.enabled", havingValue = "true")
+public class CompressionThresholdFilter extends OncePerRequestFilter {
+
+    private final long minResponseSize;
+
+    public CompressionThresholdFilter(
+            @Value("${server.compression.min-response-size:2KB}") final DataSize minResponseSize) {
+        this.minResponseSize = minResponseSize.toBytes();
+    }
+
+    @Override
+    protected void doFilterInternal(final HttpServletRequest request, final HttpServletResponse response,
+            final FilterChain filterChain) throws ServletException, IOException {
+        filterChain.doFilter(request, new ThresholdResponse(response));
+    }
+
+    private final class ThresholdResponse extends HttpServletResponseWrapper {
+
+        private ThresholdOutputStream outputStream;
+
+        ThresholdResponse(final HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (outputStream == null) {
+                outputStream = new ThresholdOutputStream(super.getOutputStream());
+            }
+            return outputStream;
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (outputStream == null || outputStream.written >= minResponseSize) {
+                super.flushBuffer();
+            }
+        }
+
+    }
+
+    private final class ThresholdOutputStream extends ServletOutputStream {
+
+        private final ServletOutputStream delegate;
+        private long written;
+
+        ThresholdOutputStream(final ServletOutputStream delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void write(final int b) throws IOException {
+            delegate.write(b);
+            written++;
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) throws IOException {
+            delegate.write(b, off, len);
+            written += len;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (written >= minResponseSize) {
+                delegate.flush();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+
+        @Override
+        public boolean isReady() {
+            return delegate.isReady();
+        }
+
+        @Override
+        public void setWriteListener(final WriteListener writeListener) {
+            delegate.setWriteListener(writeListener);
+        }
+
+    }
+
+}
@@ -0,0 +1,73 @@
+package com.example.employee.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+
+/**
+ * Admission control for the employee API, enabled by {@code employee.concurrency.enabled=true}.
+ * Reads and writes get their own {@link AdaptiveConcurrencyLimit}, configured under
+ * {@code employee.concurrency.read} and {@code employee.concurrency.write}; both count threads
+ * waiting on any Hikari pool as congestion.
+ */
+@Configuration
+@ConditionalOnProperty(name = "employee.concurrency.enabled", havingValue = "true")
+public class ConcurrencyLimitConfig {
+
+    @Bean
+    public AdaptiveConcurrencyLimit readConcurrencyLimit(
+            final ObjectProvider<HikariDataSource> pools, final MeterRegistry meterRegistry,
+            @Value("${employee.concurrency.read.initial-limit:20}") final int initialLimit,
+            @Value("${employee.concurrency.read.min-limit:4}") final int minLimit,
+            @Value("${employee.concurrency.read.max-limit:200}") final int maxLimit) {
+        return new AdaptiveConcurrencyLimit("read", initialLimit, minLimit, maxLimit,
+                threadsAwaitingConnection(pools), meterRegistry);
+    }
+
+    @Bean
+    public AdaptiveConcurrencyLimit writeConcurrencyLimit(
+            final ObjectProvider<HikariDataSource> pools, final MeterRegistry meterRegistry,
+            @Value("${employee.concurrency.write.initial-limit:10}") final int initialLimit,
+            @Value("${employee.concurrency.write.min-limit:2}") final int minLimit,
+            @Value("${employee.concurrency.write.max-limit:100}") final int maxLimit) {
+        return new AdaptiveConcurrencyLimit("write", initialLimit, minLimit, maxLimit,
+                threadsAwaitingConnection(pools), meterRegistry);
+    }
+
+    @Bean
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(
+            @Qualifier("readConcurrencyLimit") final AdaptiveConcurrencyLimit reads,
+            @Qualifier("writeConcurrencyLimit") final AdaptiveConcurrencyLimit writes,
+            final ObjectMapper objectMapper,
+            @Value("${employee.concurrency.retry-after-seconds:1}") final long retryAfterSeconds) {
+        final FilterRegistrationBean<ConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(
+                new ConcurrencyLimitFilter(reads, writes, retryAfterSeconds, objectMapper));
+        registration.addUrlPatterns("/api/employees", "/api/employees/*");
+        return registration;
+    }
+
+    @Bean
+    public ConcurrencyLimitEndpoint concurrencyLimitEndpoint(
+            @Qualifier("readConcurrencyLimit") final AdaptiveConcurrencyLimit reads,
+            @Qualifier("writeConcurrencyLimit") final AdaptiveConcurrencyLimit writes) {
+        return new ConcurrencyLimitEndpoint(Map.of("read", reads, "write", writes));
+    }
+
+    private static BooleanSupplier threadsAwaitingConnection(final ObjectProvider<HikariDataSource> pools) {
+        // resolved on every check: the pools start on first use
+        return () -> pools.orderedStream()
+                .map(HikariDataSource::getHikariPoolMXBean)
+                .anyMatch(pool -> pool != null && pool.getThreadsAwaitingConnection() > 0);
+    }
+
+}
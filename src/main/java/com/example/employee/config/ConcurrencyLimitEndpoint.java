@@ -0,0 +1,33 @@
+package com.example.employee.config;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+
+/**
+ * Actuator view of the concurrency limits, {@code /actuator/concurrency}.
+ */
+@Endpoint(id = "concurrency")
+public class ConcurrencyLimitEndpoint {
+
+    private final Map<String, AdaptiveConcurrencyLimit> limits;
+
+    public ConcurrencyLimitEndpoint(final Map<String, AdaptiveConcurrencyLimit> limits) {
+        this.limits = limits;
+    }
+
+    @ReadOperation
+    public Map<String, LimitReport> limits() {
+        return limits.entrySet().stream().collect(Collectors.toMap(Map.Entry::getKey,
+                entry -> new LimitReport(entry.getValue().getLimit(), entry.getValue().getInFlight(),
+                        entry.getValue().getRejected()),
+                (a, b) -> a, TreeMap::new));
+    }
+
+    public record LimitReport(int limit, int inFlight, long rejected) {
+    }
+
+}
@@ -0,0 +1,106 @@
+package com.example.employee.config;
+
+import com.example.employee.model.ErrorResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+
+/**
+ * Admits employee API requests up to the current {@link AdaptiveConcurrencyLimit}, one for reads
+ * ({@code GET}, {@code HEAD}) and one for writes, and answers the rest at once with
+ * {@code 503 Service Unavailable} and {@code Retry-After} instead of queueing them for a database
+ * connection. Asynchronous responses such as exports hold their slot until they complete but do
+ * not feed their duration into the limit.
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private static final String IMPORT_PATH = "/api/employees/import";
+
+    private final AdaptiveConcurrencyLimit reads;
+    private final AdaptiveConcurrencyLimit writes;
+    private final long retryAfterSeconds;
+    private final ObjectMapper objectMapper;
+
+    public ConcurrencyLimitFilter(final AdaptiveConcurrencyLimit reads,
+            final AdaptiveConcurrencyLimit writes, final long retryAfterSeconds,
+            final ObjectMapper objectMapper) {
+        this.reads = reads;
+        this.writes = writes;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(final HttpServletRequest request) {
+        // upload time, not database load, dominates an import
+        return request.getRequestURI().startsWith(IMPORT_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(final HttpServletRequest request, final HttpServletResponse response,
+            final FilterChain filterChain) throws ServletException, IOException {
+        final boolean read = HttpMethod.GET.matches(request.getMethod())
+                || HttpMethod.HEAD.matches(request.getMethod());
+        final AdaptiveConcurrencyLimit limit = read ? reads : writes;
+        if (!limit.tryAcquire()) {
+            reject(response, read);
+            return;
+        }
+        final long start = System.nanoTime();
+        boolean async = false;
+        try {
+            filterChain.doFilter(request, response);
+            async = request.isAsyncStarted();
+        } finally {
+            if (async) {
+                request.getAsyncContext().addListener(new ReleaseOnComplete(limit));
+            } else {
+                limit.release(System.nanoTime() - start);
+            }
+        }
+    }
+
+    private void reject(final HttpServletResponse response, final boolean read) throws IOException {
+        final ErrorResponse errorResponse = new ErrorResponse();
+        errorResponse.setHttpStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        errorResponse.setMessage("Too many concurrent " + (read ? "reads" : "writes") + ", retry later");
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), errorResponse);
+    }
+
+    private record ReleaseOnComplete(AdaptiveConcurrencyLimit limit) implements AsyncListener {
+
+        @Override
+        public void onComplete(final AsyncEvent event) {
+            // also follows a timeout or an error
+            limit.release();
+        }
+
+        @Override
+        public void onTimeout(final AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(final AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(final AsyncEvent event) {
+        }
+
+    }
+
+}
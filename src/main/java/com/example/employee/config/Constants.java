@@ -4,6 +4,12 @@ import java.time.format.DateTimeFormatter;
 
 public class Constants {
   public static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ISO_LOCAL_DATE;
+  public static final int DEFAULT_PAGE_SIZE = 100;
+  public static final int MAX_PAGE_SIZE = 1000;
+  public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+  public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+  public static final int MAX_BATCH_SIZE = 1000;
+  public static final String APPLICATION_SMILE = "application/x-jackson-smile";
 
   private Constants() {
   }
@@ -0,0 +1,138 @@
+package com.example.employee.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.context.SmartLifecycle;
+
+
+/**
+ * Reports virtual threads pinned to their carrier for longer than the threshold, typically by
+ * blocking I/O inside a {@code synchronized} block of a JDBC or AMQP client. Events come from the
+ * in-process JFR stream ({@code jdk.VirtualThreadPinned}) and are grouped by the first non-JDK
+ * frame of the stack:
+ * <ul>
+ *   <li>the first occurrence of each site is logged with its stack</li>
+ *   <li>{@code employee.threads.virtual.pinned} timer, tagged by site</li>
+ *   <li>{@code /actuator/pinning} lists all sites with count, total and max duration</li>
+ * </ul>
+ */
+@Endpoint(id = "pinning")
+public class PinnedThreadMonitor implements SmartLifecycle {
+    private static final Logger LOGGER = LogManager.getLogger(PinnedThreadMonitor.class);
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int MAX_SITES = 50;
+    private static final String OTHER_SITE = "other";
+    private static final int LOGGED_FRAMES = 12;
+
+    private final MeterRegistry meterRegistry;
+    private final Duration threshold;
+    private final Map<String, Site> sites = new ConcurrentHashMap<>();
+    private RecordingStream recordingStream;
+
+    public PinnedThreadMonitor(final MeterRegistry meterRegistry, final Duration threshold) {
+        this.meterRegistry = meterRegistry;
+        this.threshold = threshold;
+    }
+
+    @Override
+    public synchronized void start() {
+        recordingStream = new RecordingStream();
+        recordingStream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        recordingStream.onEvent(PINNED_EVENT, this::onPinned);
+        recordingStream.startAsync();
+        LOGGER.info("Reporting virtual threads pinned for more than {} ms", threshold.toMillis());
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (recordingStream != null) {
+            recordingStream.close();
+            recordingStream = null;
+        }
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return recordingStream != null;
+    }
+
+    @ReadOperation
+    public Map<String, SiteReport> sites() {
+        return sites.entrySet().stream().collect(Collectors.toMap(Map.Entry::getKey,
+                entry -> entry.getValue().report(), (a, b) -> a, TreeMap::new));
+    }
+
+    void onPinned(final RecordedEvent event) {
+        final List<RecordedFrame> frames = event.getStackTrace() != null
+                ? event.getStackTrace().getFrames() : List.of();
+        final String name = siteName(frames);
+        final String key = sites.containsKey(name) || sites.size() < MAX_SITES ? name : OTHER_SITE;
+        final Site site = sites.computeIfAbsent(key, this::newSite);
+        final Duration duration = event.getDuration();
+        if (site.record(duration) == 1) {
+            LOGGER.warn("Virtual thread pinned for {} ms at {}:{}", duration.toMillis(), key,
+                    frames.stream().limit(LOGGED_FRAMES)
+                            .map(frame -> "\n\tat " + frame.getMethod().getType().getName() + "."
+                                    + frame.getMethod().getName() + ":" + frame.getLineNumber())
+                            .collect(Collectors.joining()));
+        }
+    }
+
+    private Site newSite(final String name) {
+        return new Site(Timer.builder("employee.threads.virtual.pinned")
+                .description("Time virtual threads spent pinned to their carrier")
+                .tag("site", name)
+                .register(meterRegistry));
+    }
+
+    private static String siteName(final List<RecordedFrame> frames) {
+        for (final RecordedFrame frame : frames) {
+            final String type = frame.getMethod().getType().getName();
+            if (!type.startsWith("java.") && !type.startsWith("jdk.") && !type.startsWith("sun.")) {
+                return type + "." + frame.getMethod().getName();
+            }
+        }
+        return frames.isEmpty() ? "unknown" : frames.get(0).getMethod().getType().getName();
+    }
+
+    public record SiteReport(long count, long totalMs, long maxMs) {
+    }
+
+    private static final class Site {
+        private final Timer timer;
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong totalNanos = new AtomicLong();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        private Site(final Timer timer) {
+            this.timer = timer;
+        }
+
+        private long record(final Duration duration) {
+            timer.record(duration);
+            totalNanos.addAndGet(duration.toNanos());
+            maxNanos.accumulateAndGet(duration.toNanos(), Math::max);
+            return count.incrementAndGet();
+        }
+
+        private SiteReport report() {
+            return new SiteReport(count.get(), Duration.ofNanos(totalNanos.get()).toMillis(),
+                    Duration.ofNanos(maxNanos.get()).toMillis());
+        }
+    }
+}
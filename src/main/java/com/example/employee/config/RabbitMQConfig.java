@@ -1,14 +1,25 @@
 package com.example.employee.config;
 
+import java.util.Map;
+import org.springframework.amqp.core.AcknowledgeMode;
+import org.springframework.amqp.core.MessageProperties;
 import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
 import org.springframework.amqp.rabbit.connection.CachingConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.ContentTypeDelegatingMessageConverter;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 @Configuration
 public class RabbitMQConfig {
+  public static final String EMPLOYEE_UPDATES_QUEUE = "q.employee-updates";
+  public static final String EMPLOYEE_EVENTS_QUEUE = "q.employee-events";
+  public static final String EMPLOYEE_EVENTS_LISTENER_FACTORY = "employeeEventsListenerFactory";
+  public static final String EVENTS_CONTENT_TYPE_PROPERTY = "employee.events.content-type";
 
   private final CachingConnectionFactory cachingConnectionFactory;
 
@@ -17,23 +28,74 @@ public class RabbitMQConfig {
   }
   @Bean
   public Queue createEmployeeUpdatesQueue() {
-    return new Queue("q.employee-updates");
+    return new Queue(EMPLOYEE_UPDATES_QUEUE);
   }
 
   @Bean
   public Queue createEmployeeEventsQueue() {
-    return new Queue("q.employee-events");
+    return new Queue(EMPLOYEE_EVENTS_QUEUE);
   }
 
+  /**
+   * Writes events as {@code employee.events.content-type}, {@code application/json} or
+   * {@link SmileMessageConverter#CONTENT_TYPE}, and reads either according to the
+   * {@code content_type} of the message.
+   */
   @Bean
-  public Jackson2JsonMessageConverter converter() {
-    return new Jackson2JsonMessageConverter();
+  public ContentTypeDelegatingMessageConverter converter(
+      @Value("${" + EVENTS_CONTENT_TYPE_PROPERTY + ":" + MessageProperties.CONTENT_TYPE_JSON + "}")
+      String contentType) {
+    Map<String, MessageConverter> converters = Map.of(
+        MessageProperties.CONTENT_TYPE_JSON, new Jackson2JsonMessageConverter(),
+        SmileMessageConverter.CONTENT_TYPE, new SmileMessageConverter());
+    MessageConverter outbound = converters.get(contentType);
+    if (outbound == null) {
+      throw new IllegalArgumentException(EVENTS_CONTENT_TYPE_PROPERTY + " must be one of "
+          + converters.keySet() + ", got: " + contentType);
+    }
+    ContentTypeDelegatingMessageConverter converter =
+        new ContentTypeDelegatingMessageConverter(outbound);
+    converters.forEach(converter::addDelegate);
+    return converter;
   }
 
   @Bean
-  public RabbitTemplate rabbitTemplate(Jackson2JsonMessageConverter converter) {
+  public RabbitTemplate rabbitTemplate(MessageConverter converter) {
     RabbitTemplate template = new RabbitTemplate(cachingConnectionFactory);
     template.setMessageConverter(converter);
+    // times every send as spring.rabbit.template, tagged with the bean name only
+    template.setObservationEnabled(true);
     return template;
   }
+
+  /**
+   * Listener factory for {@code q.employee-events}: messages are delivered to the listener in
+   * batches of up to {@code batch-size} (or whatever arrived within {@code receive-timeout-ms})
+   * and acknowledged together once the listener returns. Prefetch must be at least the batch size
+   * for batches to fill up. A batch whose delete fails, e.g. on a pool timeout, is requeued; poison
+   * messages never get that far, the listener drops them itself.
+   */
+  @Bean(EMPLOYEE_EVENTS_LISTENER_FACTORY)
+  public SimpleRabbitListenerContainerFactory employeeEventsListenerFactory(
+      @Value("${employee.events.consumer.concurrency:2}") int concurrency,
+      @Value("${employee.events.consumer.max-concurrency:4}") int maxConcurrency,
+      @Value("${employee.events.consumer.prefetch:250}") int prefetch,
+      @Value("${employee.events.consumer.batch-size:100}") int batchSize,
+      @Value("${employee.events.consumer.receive-timeout-ms:200}") long receiveTimeout,
+      @Value("${" + VirtualThreadsConfig.ENABLED_PROPERTY + ":false}") boolean virtualThreads) {
+    SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+    factory.setConnectionFactory(cachingConnectionFactory);
+    factory.setAcknowledgeMode(AcknowledgeMode.AUTO);
+    factory.setConcurrentConsumers(concurrency);
+    factory.setMaxConcurrentConsumers(maxConcurrency);
+    factory.setPrefetchCount(Math.max(prefetch, batchSize));
+    factory.setBatchListener(true);
+    factory.setConsumerBatchEnabled(true);
+    factory.setBatchSize(batchSize);
+    factory.setReceiveTimeout(receiveTimeout);
+    if (virtualThreads) {
+      factory.setTaskExecutor(VirtualThreadsConfig.virtualThreadExecutor("employee-events-"));
+    }
+    return factory;
+  }
 }
@@ -0,0 +1,87 @@
+package com.example.employee.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+
+/**
+ * Adds a pool on a streaming replica when {@code employee.datasource.replica.url} is set.
+ * Read-only transactions are served from it, see {@link ReplicaRoutingDataSource}; without the
+ * property Spring Boot's single data source is used as before.
+ * <p>
+ * The pools are named {@code primary} and {@code replica}, which tags their {@code hikaricp.*}
+ * and {@code jdbc.connections.*} metrics. The replica pool is configured under
+ * {@code employee.datasource.replica.hikari}, credentials default to the primary's.
+ */
+@Configuration
+@ConditionalOnProperty(name = "employee.datasource.replica.url")
+public class ReplicaDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(final DataSourceProperties properties) {
+        final HikariDataSource dataSource = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("employee.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(final DataSourceProperties properties,
+            @Value("${employee.datasource.replica.url}") final String url,
+            @Value("${employee.datasource.replica.username:}") final String username,
+            @Value("${employee.datasource.replica.password:}") final String password) {
+        final HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .driverClassName(properties.determineDriverClassName())
+                .url(url)
+                .username(username.isEmpty() ? properties.determineUsername() : username)
+                .password(password.isEmpty() ? properties.determinePassword() : password)
+                .build();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(
+            @Qualifier("replicaDataSource") final DataSource replicaDataSource,
+            @Value("${employee.datasource.replica.max-lag-ms:1000}") final long maxLagMs,
+            final MeterRegistry meterRegistry) {
+        final ReplicaLagMonitor lagMonitor = new ReplicaLagMonitor(new JdbcTemplate(replicaDataSource),
+                maxLagMs);
+        Gauge.builder("employee.datasource.replica.lag", lagMonitor,
+                        monitor -> monitor.getLagMillis() == ReplicaLagMonitor.UNKNOWN
+                                ? Double.NaN : monitor.getLagMillis())
+                .description("Replication lag of the replica, NaN while unknown")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        return lagMonitor;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") final DataSource primaryDataSource,
+            @Qualifier("replicaDataSource") final DataSource replicaDataSource,
+            final ReplicaLagMonitor replicaLagMonitor, final MeterRegistry meterRegistry) {
+        // connections are fetched on first use, once the transaction's read-only flag is set
+        return new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(primaryDataSource,
+                replicaDataSource, replicaLagMonitor, meterRegistry));
+    }
+
+}
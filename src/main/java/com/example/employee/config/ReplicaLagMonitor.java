@@ -0,0 +1,65 @@
+package com.example.employee.config;
+
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+
+/**
+ * Polls how far the replica's replay is behind. A replica that replayed everything it received
+ * counts as current, otherwise the lag is the age of the last replayed transaction. A failing
+ * check makes the lag unknown, which routes reads to the primary until a check succeeds again.
+ */
+public class ReplicaLagMonitor {
+    private static final Logger LOGGER = LogManager.getLogger(ReplicaLagMonitor.class);
+
+    static final long UNKNOWN = Long.MAX_VALUE;
+
+    private static final String LAG_SQL = "SELECT CASE "
+            + "WHEN NOT pg_is_in_recovery() OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 "
+            + "ELSE (EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000)::bigint END";
+
+    private final JdbcTemplate replica;
+    private final long maxLagMs;
+    private final AtomicLong lagMillis = new AtomicLong(UNKNOWN);
+
+    public ReplicaLagMonitor(final JdbcTemplate replica, final long maxLagMs) {
+        this.replica = replica;
+        this.maxLagMs = maxLagMs;
+    }
+
+    @Scheduled(fixedDelayString = "${employee.datasource.replica.lag-check-interval-ms:500}")
+    public void check() {
+        long lag;
+        try {
+            final Long measured = replica.queryForObject(LAG_SQL, Long.class);
+            // nothing replayed yet
+            lag = measured != null ? measured : UNKNOWN;
+        } catch (DataAccessException e) {
+            if (lagMillis.get() != UNKNOWN) {
+                LOGGER.warn("Replica lag check failed, reading from the primary: {}", e.getMessage());
+            }
+            lag = UNKNOWN;
+        }
+        final long previous = lagMillis.getAndSet(lag);
+        if ((previous <= maxLagMs) != (lag <= maxLagMs)) {
+            LOGGER.info("Replica lag {} ms, reads go to the {}", lag == UNKNOWN ? "unknown" : lag,
+                    lag <= maxLagMs ? "replica" : "primary");
+        }
+    }
+
+    public boolean isWithinMaxLag() {
+        return lagMillis.get() <= maxLagMs;
+    }
+
+    /**
+     * @return the last measured lag, {@link #UNKNOWN} before the first successful check
+     */
+    public long getLagMillis() {
+        return lagMillis.get();
+    }
+
+}
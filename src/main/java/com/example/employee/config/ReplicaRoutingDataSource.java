@@ -0,0 +1,62 @@
+package com.example.employee.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Map;
+import javax.sql.DataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+
+/**
+ * Hands out replica connections to read-only transactions while the replica is within the
+ * maximum lag, and primary connections to everything else. Transactions joining an outer
+ * read-write transaction use its primary connection, so reads following a write in the same
+ * transaction see it.
+ * <p>
+ * The routing key is only known once the transaction is set up, so this must sit behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    enum Pool { PRIMARY, REPLICA }
+
+    private final ReplicaLagMonitor lagMonitor;
+    private final Counter primaryConnections;
+    private final Counter replicaConnections;
+    private final Counter fallbacks;
+
+    public ReplicaRoutingDataSource(final DataSource primary, final DataSource replica,
+            final ReplicaLagMonitor lagMonitor, final MeterRegistry meterRegistry) {
+        this.lagMonitor = lagMonitor;
+        setTargetDataSources(Map.of(Pool.PRIMARY, primary, Pool.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+        this.primaryConnections = connections(meterRegistry, "primary");
+        this.replicaConnections = connections(meterRegistry, "replica");
+        this.fallbacks = Counter.builder("employee.datasource.replica.fallbacks")
+                .description("Read-only connections taken from the primary as the replica lagged")
+                .register(meterRegistry);
+    }
+
+    private static Counter connections(final MeterRegistry meterRegistry, final String pool) {
+        return Counter.builder("employee.datasource.connections")
+                .description("Connections handed out by the routing data source")
+                .tag("pool", pool)
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (lagMonitor.isWithinMaxLag()) {
+                replicaConnections.increment();
+                return Pool.REPLICA;
+            }
+            fallbacks.increment();
+        }
+        primaryConnections.increment();
+        return Pool.PRIMARY;
+    }
+
+}
@@ -1,9 +1,17 @@
 package com.example.employee.config;
 
+import com.example.employee.domain.Employee;
 import com.example.employee.model.ErrorResponse;
 import com.example.employee.model.FieldError;
+import com.example.employee.util.InvalidDataException;
 import com.example.employee.util.NotFoundException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import java.util.List;
+import org.hibernate.exception.ConstraintViolationException;
+import org.postgresql.util.PSQLException;
+import org.postgresql.util.ServerErrorMessage;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
@@ -18,12 +26,19 @@ import org.springframework.web.server.ResponseStatusException;
 @RestControllerAdvice(annotations = RestController.class)
 public class RestExceptionHandler {
 
+    private final MeterRegistry meterRegistry;
+
+    public RestExceptionHandler(final MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
     @ExceptionHandler(NotFoundException.class)
     public ResponseEntity<ErrorResponse> handleNotFound(final NotFoundException exception) {
         final ErrorResponse errorResponse = new ErrorResponse();
         errorResponse.setHttpStatus(HttpStatus.NOT_FOUND.value());
         errorResponse.setException(exception.getClass().getSimpleName());
         errorResponse.setMessage(exception.getMessage());
+        countError(NotFoundException.class, errorResponse.getHttpStatus());
         return new ResponseEntity<>(errorResponse, HttpStatus.NOT_FOUND);
     }
 
@@ -33,9 +48,32 @@ public class RestExceptionHandler {
         errorResponse.setHttpStatus(HttpStatus.BAD_REQUEST.value());
         errorResponse.setException(exception.getClass().getSimpleName());
         errorResponse.setMessage(exception.getMessage());
+        countError(IllegalArgumentException.class, errorResponse.getHttpStatus());
         return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<ErrorResponse> handleDataIntegrityViolation(
+            final DataIntegrityViolationException exception) {
+        final HttpStatus status;
+        final String message;
+        final String constraintName = constraintName(exception);
+        if (Employee.EMAIL_UNIQUE_INDEX.equals(constraintName)
+                || Employee.LEGACY_EMAIL_UNIQUE_CONSTRAINT.equals(constraintName)) {
+            status = HttpStatus.BAD_REQUEST;
+            message = "Email already exists";
+        } else {
+            status = HttpStatus.CONFLICT;
+            message = "Data conflicts with existing data";
+        }
+        final ErrorResponse errorResponse = new ErrorResponse();
+        errorResponse.setHttpStatus(status.value());
+        errorResponse.setException(exception.getClass().getSimpleName());
+        errorResponse.setMessage(message);
+        countError(DataIntegrityViolationException.class, errorResponse.getHttpStatus());
+        return new ResponseEntity<>(errorResponse, status);
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ErrorResponse> handleMethodArgumentNotValid(
             final MethodArgumentNotValidException exception) {
@@ -54,6 +92,18 @@ public class RestExceptionHandler {
         errorResponse.setHttpStatus(HttpStatus.BAD_REQUEST.value());
         errorResponse.setException(exception.getClass().getSimpleName());
         errorResponse.setFieldErrors(fieldErrors);
+        countError(MethodArgumentNotValidException.class, errorResponse.getHttpStatus());
+        return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(InvalidDataException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidData(final InvalidDataException exception) {
+        final ErrorResponse errorResponse = new ErrorResponse();
+        errorResponse.setHttpStatus(HttpStatus.BAD_REQUEST.value());
+        errorResponse.setException(exception.getClass().getSimpleName());
+        errorResponse.setMessage(exception.getMessage());
+        errorResponse.setFieldErrors(exception.getFieldErrors());
+        countError(InvalidDataException.class, errorResponse.getHttpStatus());
         return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
     }
 
@@ -64,6 +114,7 @@ public class RestExceptionHandler {
         errorResponse.setHttpStatus(exception.getStatusCode().value());
         errorResponse.setException(exception.getClass().getSimpleName());
         errorResponse.setMessage(exception.getMessage());
+        countError(ResponseStatusException.class, errorResponse.getHttpStatus());
         return new ResponseEntity<>(errorResponse, exception.getStatusCode());
     }
 
@@ -74,6 +125,7 @@ public class RestExceptionHandler {
         errorResponse.setHttpStatus(HttpStatus.INTERNAL_SERVER_ERROR.value());
         errorResponse.setException(exception.getClass().getSimpleName());
         errorResponse.setMessage(exception.getMessage());
+        countError(HttpMessageNotReadableException.class, errorResponse.getHttpStatus());
         return new ResponseEntity<>(errorResponse, HttpStatus.INTERNAL_SERVER_ERROR);
     }
 
@@ -83,7 +135,31 @@ public class RestExceptionHandler {
         final ErrorResponse errorResponse = new ErrorResponse();
         errorResponse.setHttpStatus(HttpStatus.INTERNAL_SERVER_ERROR.value());
         errorResponse.setException(exception.getClass().getSimpleName());
+        countError(Throwable.class, errorResponse.getHttpStatus());
         return new ResponseEntity<>(errorResponse, HttpStatus.INTERNAL_SERVER_ERROR);
     }
 
+    // tagged with the handled type rather than the thrown class to keep the tag values bounded
+    private void countError(final Class<? extends Throwable> handledType, final int status) {
+        Counter.builder("employee.errors")
+                .description("Errors answered by the REST exception handler")
+                .tag("exception", handledType.getSimpleName())
+                .tag("status", String.valueOf(status))
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private static String constraintName(final Throwable exception) {
+        for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation) {
+                return violation.getConstraintName();
+            }
+            if (cause instanceof PSQLException psqlException) {
+                final ServerErrorMessage serverErrorMessage = psqlException.getServerErrorMessage();
+                return serverErrorMessage != null ? serverErrorMessage.getConstraint() : null;
+            }
+        }
+        return null;
+    }
+
 }
@@ -0,0 +1,58 @@
+package com.example.employee.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+
+/**
+ * Serving mode enabled by {@code employee.threads.virtual.enabled=true}: every Tomcat request,
+ * MVC async work (streaming export) and the employee-events consumer run on their own virtual
+ * thread, so a request blocked on JDBC or AMQP no longer holds a platform thread. Concurrency is
+ * then bounded by the connection pools and {@code server.tomcat.max-connections} instead of
+ * {@code server.tomcat.threads.max}.
+ * <p>
+ * Virtual threads that block while holding a monitor pin their carrier; such places are reported
+ * by {@link PinnedThreadMonitor}.
+ */
+@Configuration
+@ConditionalOnProperty(name = VirtualThreadsConfig.ENABLED_PROPERTY, havingValue = "true")
+public class VirtualThreadsConfig {
+
+    public static final String ENABLED_PROPERTY = "employee.threads.virtual.enabled";
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadProtocolHandlerCustomizer() {
+        return protocolHandler -> protocolHandler.setExecutor(virtualThreadExecutor("http-vt-"));
+    }
+
+    @Bean(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    public AsyncTaskExecutor applicationTaskExecutor() {
+        return virtualThreadExecutor("task-vt-");
+    }
+
+    @Bean
+    public PinnedThreadMonitor pinnedThreadMonitor(
+        final MeterRegistry meterRegistry,
+        @Value("${employee.threads.virtual.pinned-threshold-ms:20}") final long thresholdMs) {
+        return new PinnedThreadMonitor(meterRegistry, Duration.ofMillis(thresholdMs));
+    }
+
+    /**
+     * Executor starting a new virtual thread, named {@code prefix<n>}, per task.
+     */
+    public static AsyncTaskExecutor virtualThreadExecutor(final String prefix) {
+        return new TaskExecutorAdapter(Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name(prefix, 0).factory()));
+    }
+
+}
@@ -2,7 +2,6 @@ package com.example.employee.domain;
 
 import com.example.employee.config.Constants;
 import jakarta.persistence.Column;
-import jakarta.persistence.Convert;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
@@ -11,29 +10,41 @@ import jakarta.validation.constraints.Past;
 import java.time.LocalDate;
 import java.time.OffsetDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
 import java.util.List;
 import java.util.UUID;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.annotations.GenericGenerator;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
 
+/**
+ * Updates write only the dirty columns, so a patch of one field doesn't rewrite the whole row.
+ */
 @Entity
+@DynamicUpdate
 @EntityListeners(AuditingEntityListener.class)
 @Getter
 @Setter
 public class Employee {
 
+    public static final String EMAIL_UNIQUE_INDEX = "employee_email_lower_key";
+    /** Case-sensitive predecessor, kept by schema.sql until case-variant duplicates are resolved. */
+    public static final String LEGACY_EMAIL_UNIQUE_CONSTRAINT = "uk_fopic1oh5oln2khj8eat6ino0";
+    public static final String HOBBIES_INDEX = "employee_hobbies_idx";
+
     @Id
     @Column(nullable = false, updatable = false)
     @GenericGenerator(name = "uuid", strategy = "org.hibernate.id.UUIDGenerator")
     @GeneratedValue(generator = "uuid")
     private UUID uuid;
 
-    @Column(unique = true)
+    /** Unique case-insensitively through the {@link #EMAIL_UNIQUE_INDEX} index. */
+    @Column
     private String email;
 
     @Column
@@ -43,9 +54,12 @@ public class Employee {
     @Column
     private LocalDate birthday;
 
-    @Convert(converter = StringListConverter.class)
+    /**
+     * Postgres {@code text[]}, searchable through the {@link #HOBBIES_INDEX} GIN index. Kept as an
+     * array as Hibernate 6.2 fails to bind a {@code List} mapped to an array column.
+     */
     @Column
-    private List<String> hobbies;
+    private String[] hobbies;
 
     @CreatedDate
     @Column(nullable = false, updatable = false)
@@ -59,6 +73,14 @@ public class Employee {
         this.birthday = LocalDate.parse(birthday, Constants.DATE_FORMAT);
     }
 
+    public List<String> getHobbies() {
+        return hobbies != null ? Arrays.asList(hobbies) : null;
+    }
+
+    public void setHobbies(final List<String> hobbies) {
+        this.hobbies = hobbies != null ? hobbies.toArray(String[]::new) : null;
+    }
+
     public String getBirthdayFormatted() {
         return birthday.format(Constants.DATE_FORMAT);
     }
@@ -0,0 +1,302 @@
+package com.example.employee.events;
+
+import com.example.employee.config.RabbitMQConfig;
+import com.example.employee.model.EmployeeEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.context.WebServerGracefulShutdownLifecycle;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+
+/**
+ * Takes events off the request thread. Events are queued after the surrounding transaction
+ * commits and a dedicated thread pipelines them to the broker, keeping up to
+ * {@code max-in-flight} messages unconfirmed; nacked messages are sent again.
+ * <p>
+ * When the queue is full or the broker is unreachable, events overflow into an {@link EventSpool}.
+ * While the spool holds anything, new events are appended behind it and the spool is replayed
+ * before the queue, so events keep their publication order across an outage. A retried nack may
+ * overtake messages that were already in flight. A spooled event stays in the spool until the
+ * broker confirmed it, so a crash in between sends it again rather than losing it.
+ * <p>
+ * The publisher stops after the web server, once in-flight requests are drained. Events committed
+ * after that, by anything still running, are written to the spool directly; it is closed when the
+ * context is destroyed and replayed on the next start.
+ */
+@Component
+@ConditionalOnProperty(name = EmployeeEventPublisher.PUBLISHER_PROPERTY, havingValue = "async")
+public class AsyncEventPublisher implements EmployeeEventPublisher, SmartLifecycle {
+    private static final Logger LOGGER = LogManager.getLogger(AsyncEventPublisher.class);
+
+    private final RabbitTemplate rabbitTemplate;
+    private final ObjectMapper objectMapper;
+    private final BlockingQueue<EmployeeEvent> queue;
+    private final Queue<Pending> retries = new ConcurrentLinkedQueue<>();
+    private final EventSpool spool;
+    private final int maxInFlight;
+    private final Semaphore inFlight;
+    private final long retryIntervalMs;
+    private final Counter published;
+    private final Counter nacked;
+    private final Counter spooled;
+    private final Counter dropped;
+    private final Object lifecycleLock = new Object();
+    private volatile boolean running;
+    private volatile boolean brokerAvailable = true;
+    private Thread publisherThread;
+
+    public AsyncEventPublisher(final RabbitTemplate rabbitTemplate, final ObjectMapper objectMapper,
+        final MeterRegistry meterRegistry,
+        @Value("${employee.events.async.queue-capacity:10000}") final int queueCapacity,
+        @Value("${employee.events.async.max-in-flight:256}") final int maxInFlight,
+        @Value("${employee.events.async.retry-interval-ms:1000}") final long retryIntervalMs,
+        @Value("${employee.events.async.spool-file:${java.io.tmpdir}/employee-events.spool}")
+        final Path spoolFile,
+        @Value("${employee.events.async.spool-capacity-mb:64}") final long spoolCapacityMb)
+        throws IOException {
+        // the spool is a single mapped buffer, addressed by int
+        final long spoolCapacityBytes = spoolCapacityMb * 1024 * 1024;
+        if (spoolCapacityMb < 1 || spoolCapacityBytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(
+                "employee.events.async.spool-capacity-mb must be between 1 and "
+                + Integer.MAX_VALUE / (1024 * 1024) + ", was " + spoolCapacityMb);
+        }
+        this.rabbitTemplate = rabbitTemplate;
+        this.objectMapper = objectMapper;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.spool = new EventSpool(spoolFile, (int) spoolCapacityBytes);
+        this.maxInFlight = maxInFlight;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.retryIntervalMs = retryIntervalMs;
+        Gauge.builder("employee.events.async.queue", queue, Queue::size)
+            .description("Events waiting for the publisher thread")
+            .register(meterRegistry);
+        Gauge.builder("employee.events.async.spool", spool, EventSpool::usedBytes)
+            .description("Bytes waiting in the overflow spool")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+        Gauge.builder("employee.events.async.in.flight", inFlight,
+                semaphore -> maxInFlight - semaphore.availablePermits())
+            .description("Messages sent but not yet confirmed by the broker")
+            .register(meterRegistry);
+        this.published = Counter.builder("employee.events.async.confirmed").register(meterRegistry);
+        this.nacked = Counter.builder("employee.events.async.nacked").register(meterRegistry);
+        this.spooled = Counter.builder("employee.events.async.spooled").register(meterRegistry);
+        this.dropped = Counter.builder("employee.events.async.dropped").register(meterRegistry);
+    }
+
+    @Override
+    public void publish(final EmployeeEvent employeeEvent) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(employeeEvent);
+                }
+            });
+        } else {
+            enqueue(employeeEvent);
+        }
+    }
+
+    private void enqueue(final EmployeeEvent employeeEvent) {
+        // stop() drains the queue after running is cleared, nothing may be queued after that
+        synchronized (lifecycleLock) {
+            if (!running || !spool.isEmpty() || !queue.offer(employeeEvent)) {
+                spool(employeeEvent);
+            }
+        }
+    }
+
+    @Override
+    public int getPhase() {
+        // stopped after the web server, whose last requests may still publish
+        return WebServerGracefulShutdownLifecycle.SMART_LIFECYCLE_PHASE - 2048;
+    }
+
+    @Override
+    public void start() {
+        synchronized (lifecycleLock) {
+            running = true;
+        }
+        publisherThread = new Thread(this::publishLoop, "employee-event-publisher");
+        publisherThread.setDaemon(true);
+        publisherThread.start();
+    }
+
+    @Override
+    public void stop() {
+        synchronized (lifecycleLock) {
+            running = false;
+        }
+        try {
+            publisherThread.join(TimeUnit.SECONDS.toMillis(10));
+            // give outstanding confirms a chance to arrive before the connection closes
+            if (inFlight.tryAcquire(maxInFlight, 5, TimeUnit.SECONDS)) {
+                inFlight.release(maxInFlight);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        Pending retry;
+        while ((retry = retries.poll()) != null) {
+            // a spooled event is still in the spool until confirmed
+            if (retry.spooled() == null) {
+                spool(retry.event());
+            }
+        }
+        moveToSpool(queue);
+    }
+
+    @PreDestroy
+    public void closeSpool() {
+        try {
+            spool.close();
+        } catch (IOException e) {
+            LOGGER.warn("Cannot close event spool", e);
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void publishLoop() {
+        while (running) {
+            try {
+                if (!brokerAvailable && !probeBroker()) {
+                    moveToSpool(queue);
+                    TimeUnit.MILLISECONDS.sleep(retryIntervalMs);
+                    continue;
+                }
+                final Pending pending = nextEvent();
+                if (pending != null) {
+                    send(pending);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                LOGGER.error("Event publisher loop failed", e);
+            }
+        }
+    }
+
+    private Pending nextEvent() throws InterruptedException {
+        final Pending retry = retries.poll();
+        if (retry != null) {
+            return retry;
+        }
+        final EventSpool.Entry entry = spool.next();
+        if (entry != null) {
+            final EmployeeEvent employeeEvent = read(entry);
+            return employeeEvent != null ? new Pending(employeeEvent, entry) : null;
+        }
+        final EmployeeEvent employeeEvent = queue.poll(100, TimeUnit.MILLISECONDS);
+        return employeeEvent != null ? new Pending(employeeEvent, null) : null;
+    }
+
+    private void send(final Pending pending) throws InterruptedException {
+        final EmployeeEvent employeeEvent = pending.event();
+        inFlight.acquire();
+        final CorrelationData correlationData = new CorrelationData(employeeEvent.getEventId().toString());
+        try {
+            rabbitTemplate.convertAndSend("", RabbitMQConfig.EMPLOYEE_UPDATES_QUEUE, employeeEvent,
+                correlationData);
+        } catch (AmqpException e) {
+            inFlight.release();
+            LOGGER.warn("Broker unavailable, spooling events: {}", e.getMessage());
+            brokerAvailable = false;
+            // retried first once the broker is back, ahead of anything spooled after it
+            retries.add(pending);
+            return;
+        }
+        correlationData.getFuture().whenComplete((confirm, exception) -> {
+            inFlight.release();
+            if (exception == null && confirm.isAck()) {
+                published.increment();
+                if (pending.spooled() != null) {
+                    spool.acknowledge(pending.spooled());
+                }
+            } else {
+                LOGGER.warn("Event {} not confirmed, retrying: {}", employeeEvent.getEventId(),
+                    exception != null ? exception.getMessage() : confirm.getReason());
+                nacked.increment();
+                retries.add(pending);
+            }
+        });
+    }
+
+    private boolean probeBroker() {
+        try {
+            rabbitTemplate.execute(channel -> channel.isOpen());
+            LOGGER.info("Broker reachable again, replaying spooled events");
+            brokerAvailable = true;
+        } catch (AmqpException e) {
+            LOGGER.debug("Broker still unavailable: {}", e.getMessage());
+        }
+        return brokerAvailable;
+    }
+
+    private void moveToSpool(final Queue<EmployeeEvent> events) {
+        EmployeeEvent employeeEvent;
+        while ((employeeEvent = events.poll()) != null) {
+            spool(employeeEvent);
+        }
+    }
+
+    private void spool(final EmployeeEvent employeeEvent) {
+        try {
+            if (spool.append(objectMapper.writeValueAsBytes(employeeEvent))) {
+                spooled.increment();
+                return;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        LOGGER.error("Event spool full, dropping event: {}", employeeEvent);
+        dropped.increment();
+    }
+
+    private EmployeeEvent read(final EventSpool.Entry entry) {
+        try {
+            return objectMapper.readValue(entry.record(), EmployeeEvent.class);
+        } catch (IOException e) {
+            // an unreadable record must not hold back the read position forever
+            LOGGER.error("Dropping unreadable spooled event", e);
+            dropped.increment();
+            spool.acknowledge(entry);
+            return null;
+        }
+    }
+
+    /**
+     * @param spooled the spool record of the event, {@code null} if it was never spooled
+     */
+    private record Pending(EmployeeEvent event, EventSpool.Entry spooled) {
+    }
+
+}
@@ -0,0 +1,45 @@
+package com.example.employee.events;
+
+import com.example.employee.config.RabbitMQConfig;
+import com.example.employee.model.EmployeeEvent;
+import java.util.List;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+
+/**
+ * Publishes on the calling thread. Not transactional: an event can be lost on a broker failure
+ * or published for a write that is rolled back afterwards.
+ */
+@Component
+@ConditionalOnProperty(name = EmployeeEventPublisher.PUBLISHER_PROPERTY, havingValue = "direct")
+public class DirectEventPublisher implements EmployeeEventPublisher {
+    private static final Logger LOGGER = LogManager.getLogger(DirectEventPublisher.class);
+
+    private final RabbitTemplate rabbitTemplate;
+
+    public DirectEventPublisher(final RabbitTemplate rabbitTemplate) {
+        this.rabbitTemplate = rabbitTemplate;
+    }
+
+    @Override
+    public void publish(final EmployeeEvent employeeEvent) {
+        LOGGER.info("Sending event: {}", employeeEvent);
+        rabbitTemplate.convertAndSend(RabbitMQConfig.EMPLOYEE_UPDATES_QUEUE, employeeEvent);
+    }
+
+    @Override
+    public void publishAll(final List<EmployeeEvent> employeeEvents) {
+        LOGGER.info("Sending {} events", employeeEvents.size());
+        // one channel checkout for the whole batch
+        rabbitTemplate.invoke(operations -> {
+            employeeEvents.forEach(employeeEvent ->
+                operations.convertAndSend(RabbitMQConfig.EMPLOYEE_UPDATES_QUEUE, employeeEvent));
+            return null;
+        });
+    }
+
+}
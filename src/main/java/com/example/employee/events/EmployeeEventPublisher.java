@@ -0,0 +1,21 @@
+package com.example.employee.events;
+
+import com.example.employee.model.EmployeeEvent;
+import java.util.List;
+
+
+/**
+ * Hands employee change events to the message broker. The implementation is chosen with
+ * {@code employee.events.publisher}.
+ */
+public interface EmployeeEventPublisher {
+
+    String PUBLISHER_PROPERTY = "employee.events.publisher";
+
+    void publish(EmployeeEvent employeeEvent);
+
+    default void publishAll(final List<EmployeeEvent> employeeEvents) {
+        employeeEvents.forEach(this::publish);
+    }
+
+}
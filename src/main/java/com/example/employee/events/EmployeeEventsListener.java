@@ -0,0 +1,115 @@
+package com.example.employee.events;
+
+import com.example.employee.config.CacheConfig;
+import com.example.employee.config.RabbitMQConfig;
+import com.example.employee.config.SmileMessageConverter;
+import com.example.employee.model.EmployeeEvent;
+import com.example.employee.model.EventTypes;
+import com.example.employee.service.EmployeeService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+
+/**
+ * Consumes "employee removed" events published by other services on {@code q.employee-events}.
+ * Messages arrive in batches and the whole batch is deleted with one statement and acknowledged
+ * at once. Event ids already processed within the dedup window are skipped, so redeliveries cost
+ * no database work; ids are only remembered once their delete has committed.
+ */
+@Component
+@ConditionalOnProperty(name = "employee.events.consumer.enabled", matchIfMissing = true)
+public class EmployeeEventsListener {
+    private static final Logger LOGGER = LogManager.getLogger(EmployeeEventsListener.class);
+
+    private final EmployeeService employeeService;
+    private final ObjectMapper objectMapper;
+    private final ObjectMapper smileMapper;
+    private final CacheManager cacheManager;
+    private final Cache<UUID, Boolean> processedEventIds;
+
+    public EmployeeEventsListener(final EmployeeService employeeService,
+        final ObjectMapper objectMapper, final CacheManager cacheManager,
+        @Value("${employee.events.consumer.dedup-window:100000}") final long dedupWindow) {
+        this.employeeService = employeeService;
+        this.objectMapper = objectMapper;
+        this.smileMapper = objectMapper.copyWith(new SmileFactory());
+        this.cacheManager = cacheManager;
+        this.processedEventIds = Caffeine.newBuilder()
+                .maximumSize(dedupWindow)
+                .expireAfterWrite(Duration.ofHours(1))
+                .build();
+    }
+
+    @RabbitListener(queues = RabbitMQConfig.EMPLOYEE_EVENTS_QUEUE,
+        containerFactory = RabbitMQConfig.EMPLOYEE_EVENTS_LISTENER_FACTORY)
+    public void onEvents(final List<Message> messages) {
+        final Set<UUID> eventIds = new LinkedHashSet<>();
+        final Set<UUID> uuids = new LinkedHashSet<>();
+        for (final Message message : messages) {
+            final EmployeeEvent employeeEvent = read(message);
+            if (employeeEvent == null) {
+                continue;
+            }
+            final UUID eventId = employeeEvent.getEventId();
+            if (eventId != null
+                && (processedEventIds.getIfPresent(eventId) != null || !eventIds.add(eventId))) {
+                LOGGER.debug("Skipping duplicate event {}", eventId);
+                continue;
+            }
+            uuids.add(employeeEvent.getUuid());
+        }
+        if (!uuids.isEmpty()) {
+            final List<UUID> deleted = employeeService.deleteAll(uuids);
+            final org.springframework.cache.Cache employees = cacheManager.getCache(CacheConfig.EMPLOYEES);
+            if (employees != null) {
+                deleted.forEach(employees::evict);
+            }
+        }
+        eventIds.forEach(eventId -> processedEventIds.put(eventId, Boolean.TRUE));
+        LOGGER.info("Processed {} employee events, {} employees removed", messages.size(), uuids.size());
+    }
+
+    /**
+     * @return the event, or {@code null} for a message that can never be processed and is
+     *     dropped instead of being redelivered forever
+     */
+    private EmployeeEvent read(final Message message) {
+        final EmployeeEvent employeeEvent;
+        try {
+            // JSON unless the producer says otherwise, as before content types were honoured
+            final ObjectMapper mapper =
+                SmileMessageConverter.CONTENT_TYPE.equals(message.getMessageProperties().getContentType())
+                    ? smileMapper : objectMapper;
+            employeeEvent = mapper.readValue(message.getBody(), EmployeeEvent.class);
+        } catch (IOException e) {
+            LOGGER.warn("Dropping unreadable employee event: {}", e.getMessage());
+            return null;
+        }
+        if (employeeEvent.getUuid() == null) {
+            LOGGER.warn("Dropping employee event without uuid: {}", employeeEvent);
+            return null;
+        }
+        if (employeeEvent.getEventType() != null && employeeEvent.getEventType() != EventTypes.DELETED) {
+            LOGGER.debug("Ignoring {} event for {}", employeeEvent.getEventType(), employeeEvent.getUuid());
+            return null;
+        }
+        return employeeEvent;
+    }
+
+}
@@ -0,0 +1,93 @@
+package com.example.employee.events;
+
+import com.example.employee.model.EmployeeEvent;
+import com.example.employee.model.EmployeePatch;
+import com.example.employee.model.EventTypes;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+
+/**
+ * Folds successive events of the same employee into the fewest events describing the same
+ * outcome:
+ * <ul>
+ * <li>{@code UPDATED} after {@code CREATED} or {@code UPDATED} is merged into it, keeping the
+ * earlier type. A full update replaces the state, a patch overwrites only its
+ * {@code changedFields}.</li>
+ * <li>{@code DELETED} after {@code CREATED} cancels both, the employee never existed for
+ * consumers; after {@code UPDATED} it replaces the update.</li>
+ * <li>Anything else, such as an event following {@code DELETED}, is kept as it is.</li>
+ * </ul>
+ * Events of one employee keep their order. Employees appear in the order of their first event.
+ */
+final class EventCoalescer {
+
+    private static final List<String> ALL_FIELDS = List.of(EmployeePatch.EMAIL, EmployeePatch.FULL_NAME,
+        EmployeePatch.BIRTHDAY, EmployeePatch.HOBBIES);
+
+    private EventCoalescer() {
+    }
+
+    static List<EmployeeEvent> coalesce(final List<EmployeeEvent> employeeEvents) {
+        final Map<UUID, List<EmployeeEvent>> pending = new LinkedHashMap<>();
+        for (final EmployeeEvent employeeEvent : employeeEvents) {
+            fold(pending.computeIfAbsent(employeeEvent.getUuid(), uuid -> new ArrayList<>()), employeeEvent);
+        }
+        return pending.values().stream().flatMap(List::stream).toList();
+    }
+
+    private static void fold(final List<EmployeeEvent> events, final EmployeeEvent next) {
+        final EmployeeEvent last = events.isEmpty() ? null : events.get(events.size() - 1);
+        final EventTypes lastType = last != null ? last.getEventType() : null;
+        if (next.getEventType() == EventTypes.UPDATED
+                && (lastType == EventTypes.CREATED || lastType == EventTypes.UPDATED)) {
+            events.set(events.size() - 1, merge(last, next));
+        } else if (next.getEventType() == EventTypes.DELETED && lastType == EventTypes.CREATED) {
+            events.remove(events.size() - 1);
+        } else if (next.getEventType() == EventTypes.DELETED && lastType == EventTypes.UPDATED) {
+            events.set(events.size() - 1, next);
+        } else {
+            events.add(next);
+        }
+    }
+
+    private static EmployeeEvent merge(final EmployeeEvent earlier, final EmployeeEvent update) {
+        final EmployeeEvent merged = new EmployeeEvent();
+        merged.setEventId(update.getEventId());
+        merged.setEventType(earlier.getEventType());
+        merged.setUuid(update.getUuid());
+        final List<String> changedFields = update.getChangedFields();
+        if (changedFields == null) {
+            copyFields(update, merged, ALL_FIELDS);
+            return merged;
+        }
+        final List<String> earlierFields = earlier.getChangedFields();
+        copyFields(earlier, merged, earlierFields != null ? earlierFields : ALL_FIELDS);
+        copyFields(update, merged, changedFields);
+        if (earlierFields != null) {
+            final Set<String> fields = new LinkedHashSet<>(earlierFields);
+            fields.addAll(changedFields);
+            merged.setChangedFields(List.copyOf(fields));
+        }
+        return merged;
+    }
+
+    private static void copyFields(final EmployeeEvent from, final EmployeeEvent to,
+            final List<String> fields) {
+        for (final String field : fields) {
+            switch (field) {
+                case EmployeePatch.EMAIL -> to.setEmail(from.getEmail());
+                case EmployeePatch.FULL_NAME -> to.setFullName(from.getFullName());
+                case EmployeePatch.BIRTHDAY -> to.setBirthday(from.getBirthday());
+                case EmployeePatch.HOBBIES -> to.setHobbies(from.getHobbies());
+                default -> throw new IllegalArgumentException("Unknown field: " + field);
+            }
+        }
+    }
+
+}
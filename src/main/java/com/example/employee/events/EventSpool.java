@@ -0,0 +1,163 @@
+package com.example.employee.events;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+
+/**
+ * Append-only FIFO of byte records in a memory-mapped file. Records are framed as
+ * {@code [int length][bytes]}; the read and write positions live in a 16 byte header, so a
+ * spool left behind by a crashed or stopped process is picked up again on the next start.
+ * <p>
+ * {@link #next()} hands records out without removing them; the read position only moves past a
+ * record once it and every record before it were {@linkplain #acknowledge acknowledged}. Records
+ * handed out but not acknowledged when the process stops are handed out again on the next start.
+ * <p>
+ * Writes land in the page cache and survive a process crash, but are not forced to disk per
+ * record; an operating system crash can lose the tail of the spool.
+ */
+public class EventSpool implements Closeable {
+
+    private static final int HEADER_SIZE = 16;
+    private static final int WRITE_POSITION_OFFSET = 0;
+    private static final int READ_POSITION_OFFSET = 8;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final Deque<Entry> unacknowledged = new ArrayDeque<>();
+    private int readPosition;
+    private int nextPosition;
+    private int writePosition;
+
+    public EventSpool(final Path path, final int capacityBytes) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+            StandardOpenOption.WRITE);
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacityBytes);
+        final long storedWrite = buffer.getLong(WRITE_POSITION_OFFSET);
+        final long storedRead = buffer.getLong(READ_POSITION_OFFSET);
+        if (storedRead < HEADER_SIZE || storedWrite < storedRead || storedWrite > capacityBytes) {
+            // new file, or a header that does not describe this mapping
+            reset();
+        } else {
+            readPosition = (int) storedRead;
+            nextPosition = readPosition;
+            writePosition = (int) storedWrite;
+        }
+    }
+
+    /**
+     * @return {@code false} if the record does not fit even after compaction
+     */
+    public synchronized boolean append(final byte[] record) {
+        final int required = Integer.BYTES + record.length;
+        if (writePosition + required > buffer.capacity()) {
+            compact();
+            if (writePosition + required > buffer.capacity()) {
+                return false;
+            }
+        }
+        buffer.putInt(writePosition, record.length);
+        buffer.put(writePosition + Integer.BYTES, record);
+        writePosition += required;
+        buffer.putLong(WRITE_POSITION_OFFSET, writePosition);
+        return true;
+    }
+
+    /**
+     * @return the oldest record not handed out yet, or {@code null} if there is none
+     */
+    public synchronized Entry next() {
+        if (nextPosition == writePosition) {
+            return null;
+        }
+        final int length = buffer.getInt(nextPosition);
+        final byte[] record = new byte[length];
+        buffer.get(nextPosition + Integer.BYTES, record);
+        nextPosition += Integer.BYTES + length;
+        final Entry entry = new Entry(record);
+        unacknowledged.addLast(entry);
+        return entry;
+    }
+
+    /**
+     * Marks a record returned by {@link #next()} as done; it is removed once the records before
+     * it are done as well.
+     */
+    public synchronized void acknowledge(final Entry entry) {
+        entry.acknowledged = true;
+        while (!unacknowledged.isEmpty() && unacknowledged.peekFirst().acknowledged) {
+            readPosition += unacknowledged.removeFirst().size();
+        }
+        if (readPosition == writePosition) {
+            reset();
+        } else {
+            buffer.putLong(READ_POSITION_OFFSET, readPosition);
+        }
+    }
+
+    /**
+     * @return whether every record was acknowledged
+     */
+    public synchronized boolean isEmpty() {
+        return readPosition == writePosition;
+    }
+
+    public synchronized int usedBytes() {
+        return writePosition - readPosition;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+
+    /** Moves the unread records to the front of the file to reclaim the space already read. */
+    private void compact() {
+        if (readPosition == HEADER_SIZE) {
+            return;
+        }
+        final int used = writePosition - readPosition;
+        buffer.put(HEADER_SIZE, buffer, readPosition, used);
+        nextPosition -= readPosition - HEADER_SIZE;
+        readPosition = HEADER_SIZE;
+        writePosition = HEADER_SIZE + used;
+        buffer.putLong(WRITE_POSITION_OFFSET, writePosition);
+        buffer.putLong(READ_POSITION_OFFSET, readPosition);
+    }
+
+    private void reset() {
+        readPosition = HEADER_SIZE;
+        nextPosition = HEADER_SIZE;
+        writePosition = HEADER_SIZE;
+        buffer.putLong(WRITE_POSITION_OFFSET, writePosition);
+        buffer.putLong(READ_POSITION_OFFSET, readPosition);
+    }
+
+    /** A record handed out by {@link #next()}. */
+    public static final class Entry {
+
+        private final byte[] record;
+        private boolean acknowledged;
+
+        private Entry(final byte[] record) {
+            this.record = record;
+        }
+
+        public byte[] record() {
+            return record;
+        }
+
+        private int size() {
+            return Integer.BYTES + record.length;
+        }
+
+    }
+
+}
@@ -0,0 +1,61 @@
+package com.example.employee.events;
+
+import com.example.employee.model.EmployeeEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.List;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+
+/**
+ * Writes events to the {@code employee_outbox} table in the caller's transaction, so an event
+ * exists if and only if the change it describes was committed. {@link OutboxRelay} delivers the
+ * rows to the broker.
+ */
+@Component
+@ConditionalOnProperty(name = EmployeeEventPublisher.PUBLISHER_PROPERTY, havingValue = "outbox",
+    matchIfMissing = true)
+public class OutboxEventPublisher implements EmployeeEventPublisher {
+    private static final Logger LOGGER = LogManager.getLogger(OutboxEventPublisher.class);
+
+    private static final String INSERT_SQL = "INSERT INTO employee_outbox "
+            + "(event_id, employee_uuid, event_type, payload) VALUES (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    public OutboxEventPublisher(final JdbcTemplate jdbcTemplate, final ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publish(final EmployeeEvent employeeEvent) {
+        LOGGER.info("Storing event: {}", employeeEvent);
+        jdbcTemplate.update(INSERT_SQL, toRow(employeeEvent));
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publishAll(final List<EmployeeEvent> employeeEvents) {
+        LOGGER.info("Storing {} events", employeeEvents.size());
+        jdbcTemplate.batchUpdate(INSERT_SQL, employeeEvents.stream().map(this::toRow).toList());
+    }
+
+    private Object[] toRow(final EmployeeEvent employeeEvent) {
+        try {
+            return new Object[] { employeeEvent.getEventId(), employeeEvent.getUuid(),
+                employeeEvent.getEventType().name(), objectMapper.writeValueAsString(employeeEvent) };
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize event " + employeeEvent, e);
+        }
+    }
+
+}
@@ -0,0 +1,165 @@
+package com.example.employee.events;
+
+import com.example.employee.config.RabbitMQConfig;
+import com.example.employee.model.EmployeeEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+
+/**
+ * Drains {@code employee_outbox} to RabbitMQ. Each batch is claimed with
+ * {@code FOR UPDATE SKIP LOCKED} and deleted in the same transaction after it was sent, so any
+ * number of instances can relay concurrently without sending a row twice. A failed send rolls the
+ * batch back and it is retried on the next poll (at-least-once delivery).
+ * <p>
+ * Claiming also takes a transaction-level advisory lock per employee, and rows of employees locked
+ * by another relay are skipped. The events of one employee are therefore sent in the order they
+ * were written, whichever instances relay them.
+ * <p>
+ * With a {@code coalesce-window-ms} a row is held back until its employee had no newer event for
+ * that long, or until it is {@code coalesce-max-delay-ms} old, and the events of an employee
+ * claimed together are folded by {@link EventCoalescer}. Bulk edits of the same employee are then
+ * delivered as their outcome rather than one message per edit.
+ */
+@Component
+@ConditionalOnProperty(name = EmployeeEventPublisher.PUBLISHER_PROPERTY, havingValue = "outbox",
+    matchIfMissing = true)
+public class OutboxRelay {
+    private static final Logger LOGGER = LogManager.getLogger(OutboxRelay.class);
+
+    // held until commit: a relay skips every row of an employee another relay has claimed rows of,
+    // and the older rows of an employee come first in id order, so they are never overtaken
+    private static final String EMPLOYEE_LOCK =
+            "pg_try_advisory_xact_lock(hashtext(o.employee_uuid::text))";
+    private static final String CLAIM_SQL = "SELECT id, payload, created_at FROM employee_outbox o "
+            + "WHERE " + EMPLOYEE_LOCK + " ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED";
+    private static final String COALESCING_CLAIM_SQL = "SELECT id, payload, created_at "
+            + "FROM employee_outbox o "
+            // CASE, unlike AND, fixes the order: only rows out of the window take the lock
+            + "WHERE CASE WHEN o.created_at < now() - ? * interval '1 millisecond' "
+            + "OR NOT EXISTS (SELECT 1 FROM employee_outbox n WHERE n.employee_uuid = o.employee_uuid "
+            + "AND n.created_at >= now() - ? * interval '1 millisecond') "
+            + "THEN " + EMPLOYEE_LOCK + " ELSE false END "
+            + "ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED";
+    private static final String DELETE_SQL = "DELETE FROM employee_outbox WHERE id = ANY(?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final RabbitTemplate rabbitTemplate;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+    private final long coalesceWindowMs;
+    private final long coalesceMaxDelayMs;
+    private final AtomicLong lagMillis = new AtomicLong();
+    private final DistributionSummary batchSizes;
+    private final Counter relayed;
+    private final Counter coalesced;
+
+    public OutboxRelay(final JdbcTemplate jdbcTemplate,
+        final PlatformTransactionManager transactionManager, final RabbitTemplate rabbitTemplate,
+        final ObjectMapper objectMapper, final MeterRegistry meterRegistry,
+        @Value("${employee.events.outbox.batch-size:100}") final int batchSize,
+        @Value("${employee.events.outbox.coalesce-window-ms:0}") final long coalesceWindowMs,
+        @Value("${employee.events.outbox.coalesce-max-delay-ms:5000}") final long coalesceMaxDelayMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.rabbitTemplate = rabbitTemplate;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+        this.coalesceWindowMs = coalesceWindowMs;
+        this.coalesceMaxDelayMs = coalesceMaxDelayMs;
+        Gauge.builder("employee.outbox.lag", lagMillis, AtomicLong::get)
+            .description("Age of the oldest unrelayed outbox row")
+            .baseUnit("milliseconds")
+            .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("employee.outbox.batch.size")
+            .description("Rows relayed per outbox batch")
+            .register(meterRegistry);
+        this.relayed = Counter.builder("employee.outbox.relayed")
+            .description("Outbox rows delivered to the broker")
+            .register(meterRegistry);
+        this.coalesced = Counter.builder("employee.outbox.coalesced")
+            .description("Outbox rows folded into another event instead of being sent")
+            .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${employee.events.outbox.poll-interval-ms:500}")
+    public void relay() {
+        try {
+            // keep draining while batches come back full so a backlog is cleared in one poll
+            int relayedRows;
+            do {
+                relayedRows = transactionTemplate.execute(status -> relayBatch());
+            } while (relayedRows == batchSize);
+        } catch (AmqpException e) {
+            LOGGER.warn("Outbox relay failed, batch will be retried: {}", e.getMessage());
+        }
+    }
+
+    private int relayBatch() {
+        final RowMapper<OutboxRow> rowMapper = (rs, rowNum) -> new OutboxRow(rs.getLong("id"),
+            rs.getString("payload"), rs.getTimestamp("created_at"));
+        final List<OutboxRow> rows = coalesceWindowMs > 0
+            ? jdbcTemplate.query(COALESCING_CLAIM_SQL, rowMapper, coalesceMaxDelayMs, coalesceWindowMs, batchSize)
+            : jdbcTemplate.query(CLAIM_SQL, rowMapper, batchSize);
+        if (rows.isEmpty()) {
+            lagMillis.set(0);
+            return 0;
+        }
+        lagMillis.set(Duration.between(rows.get(0).createdAt().toInstant(), Instant.now()).toMillis());
+        final List<EmployeeEvent> employeeEvents = new ArrayList<>(rows.size());
+        for (final OutboxRow row : rows) {
+            final EmployeeEvent employeeEvent = toEvent(row);
+            if (employeeEvent != null) {
+                employeeEvents.add(employeeEvent);
+            }
+        }
+        final List<EmployeeEvent> toSend = coalesceWindowMs > 0
+            ? EventCoalescer.coalesce(employeeEvents) : employeeEvents;
+        toSend.forEach(employeeEvent ->
+            rabbitTemplate.convertAndSend(RabbitMQConfig.EMPLOYEE_UPDATES_QUEUE, employeeEvent));
+        final Long[] ids = rows.stream().map(OutboxRow::id).toArray(Long[]::new);
+        jdbcTemplate.update(DELETE_SQL, ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", ids)));
+        batchSizes.record(rows.size());
+        relayed.increment(rows.size());
+        coalesced.increment(employeeEvents.size() - toSend.size());
+        LOGGER.debug("Relayed {} outbox events as {} messages", rows.size(), toSend.size());
+        return rows.size();
+    }
+
+    private EmployeeEvent toEvent(final OutboxRow row) {
+        try {
+            return objectMapper.readValue(row.payload(), EmployeeEvent.class);
+        } catch (JsonProcessingException e) {
+            // a poison row must not block the rows behind it
+            LOGGER.error("Dropping unreadable outbox row {}: {}", row.id(), row.payload(), e);
+            return null;
+        }
+    }
+
+    private record OutboxRow(long id, String payload, Timestamp createdAt) {
+    }
+
+}
@@ -0,0 +1,19 @@
+package com.example.employee.model;
+
+import java.util.List;
+import java.util.UUID;
+import lombok.Getter;
+import lombok.Setter;
+
+
+@Getter
+@Setter
+public class BatchItemResult {
+
+    private Integer index;
+    private Integer httpStatus;
+    private UUID uuid;
+    private String message;
+    private List<FieldError> fieldErrors;
+
+}
@@ -10,6 +10,10 @@ import java.time.format.DateTimeParseException;
 public class DateFormatValidator implements ConstraintValidator<ValidDateFormat, String> {
   @Override
   public boolean isValid(String date, ConstraintValidatorContext constraintValidatorContext) {
+    if (date == null) {
+      // presence is @NotNull's concern
+      return true;
+    }
     try {
       LocalDate.parse(date, Constants.DATE_FORMAT);
     } catch (DateTimeParseException e) {
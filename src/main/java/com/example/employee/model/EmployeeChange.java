@@ -0,0 +1,20 @@
+package com.example.employee.model;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+import lombok.Getter;
+import lombok.Setter;
+
+
+@Getter
+@Setter
+public class EmployeeChange {
+
+    /** {@code CREATED} or {@code UPDATED} after the requested watermark, or {@code DELETED}. */
+    private EventTypes changeType;
+    private UUID uuid;
+    private OffsetDateTime changedAt;
+    /** State of the employee, {@code null} once deleted. */
+    private EmployeeDTO employee;
+
+}
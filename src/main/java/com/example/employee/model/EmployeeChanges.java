@@ -0,0 +1,18 @@
+package com.example.employee.model;
+
+import java.util.List;
+import lombok.Getter;
+import lombok.Setter;
+
+
+@Getter
+@Setter
+public class EmployeeChanges {
+
+    private List<EmployeeChange> changes;
+    /** Position after the last change, to be passed as {@code since} of the next request. */
+    private String watermark;
+    /** Whether more changes were already available; if not, poll again later. */
+    private boolean hasMore;
+
+}
@@ -1,12 +1,15 @@
 package com.example.employee.model;
 
 import com.example.employee.config.Constants;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Past;
 import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
 import java.time.LocalDate;
+import java.time.OffsetDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.StringJoiner;
@@ -38,6 +41,11 @@ public class EmployeeDTO {
     @Size(max = 255)
     private List<String> hobbies;
 
+    /** Version of the state read, published as the ETag header rather than in the body. */
+    @JsonIgnore
+    @Schema(hidden = true)
+    private OffsetDateTime lastUpdated;
+
     public void setBirthday(LocalDate birthday) {
         this.birthday = birthday.format(Constants.DATE_FORMAT);
     }
@@ -1,5 +1,7 @@
 package com.example.employee.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.util.List;
 import java.util.StringJoiner;
 import java.util.UUID;
 import lombok.Getter;
@@ -9,9 +11,15 @@ import lombok.ToString;
 @Getter
 @Setter
 @ToString
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class EmployeeEvent extends EmployeeDTO {
   private UUID eventId;
   private EventTypes eventType;
+  /**
+   * Set on events of a patch, which carry only these fields; a listed field without a value
+   * was cleared. {@code null} when the event carries the whole employee.
+   */
+  private List<String> changedFields;
 
   public EmployeeEvent() {
     super();
@@ -22,6 +30,7 @@ public class EmployeeEvent extends EmployeeDTO {
     return new StringJoiner(", ", EmployeeEvent.class.getSimpleName() + "[", "]")
         .add("eventId=" + eventId)
         .add("eventType=" + eventType)
+        .add("changedFields=" + changedFields)
         .toString();
   }
 }
@@ -0,0 +1,15 @@
+package com.example.employee.model;
+
+import java.util.List;
+import lombok.Getter;
+import lombok.Setter;
+
+
+@Getter
+@Setter
+public class EmployeePage {
+
+    private List<EmployeeDTO> items;
+    private String nextCursor;
+
+}
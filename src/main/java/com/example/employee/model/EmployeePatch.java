@@ -0,0 +1,58 @@
+package com.example.employee.model;
+
+import com.fasterxml.jackson.annotation.JsonSetter;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+
+/**
+ * JSON Merge Patch (RFC 7386) of an employee. Remembers which members were present, so an absent
+ * member leaves the column untouched while an explicit {@code null} clears it.
+ */
+public class EmployeePatch {
+
+    public static final String EMAIL = "email";
+    public static final String FULL_NAME = "fullName";
+    public static final String BIRTHDAY = "birthday";
+    public static final String HOBBIES = "hobbies";
+
+    private final EmployeeDTO values = new EmployeeDTO();
+    private final Set<String> fields = new LinkedHashSet<>();
+
+    @JsonSetter(EMAIL)
+    public void setEmail(final String email) {
+        values.setEmail(email);
+        fields.add(EMAIL);
+    }
+
+    @JsonSetter(FULL_NAME)
+    public void setFullName(final String fullName) {
+        values.setFullName(fullName);
+        fields.add(FULL_NAME);
+    }
+
+    @JsonSetter(BIRTHDAY)
+    public void setBirthday(final String birthday) {
+        values.setBirthday(birthday);
+        fields.add(BIRTHDAY);
+    }
+
+    @JsonSetter(HOBBIES)
+    public void setHobbies(final List<String> hobbies) {
+        values.setHobbies(hobbies);
+        fields.add(HOBBIES);
+    }
+
+    /** Supplied values, members missing from the patch are {@code null}. */
+    public EmployeeDTO getValues() {
+        return values;
+    }
+
+    /** Names of the members present in the patch, in payload order. */
+    public Set<String> getFields() {
+        return Collections.unmodifiableSet(fields);
+    }
+
+}
@@ -0,0 +1,49 @@
+package com.example.employee.model;
+
+import io.swagger.v3.oas.annotations.Parameter;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.format.annotation.DateTimeFormat;
+
+
+/**
+ * Filters of {@code GET /api/employees/search}; unset filters are not applied. Birthday bounds
+ * are inclusive, time ranges include {@code from} and exclude {@code to}.
+ */
+@Getter
+@Setter
+public class EmployeeSearchCriteria {
+
+    @Parameter(description = "Born on or after, yyyy-MM-dd")
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate birthdayFrom;
+
+    @Parameter(description = "Born on or before, yyyy-MM-dd")
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate birthdayTo;
+
+    @Parameter(description = "Case-insensitive prefix of the full name")
+    private String namePrefix;
+
+    @Parameter(description = "Email domain, e.g. example.com")
+    private String emailDomain;
+
+    @Parameter(description = "Created at or after, ISO-8601 date-time with offset")
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private OffsetDateTime createdFrom;
+
+    @Parameter(description = "Created before, ISO-8601 date-time with offset")
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private OffsetDateTime createdTo;
+
+    @Parameter(description = "Last updated at or after, ISO-8601 date-time with offset")
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private OffsetDateTime updatedFrom;
+
+    @Parameter(description = "Last updated before, ISO-8601 date-time with offset")
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private OffsetDateTime updatedTo;
+
+}
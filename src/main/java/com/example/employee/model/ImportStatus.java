@@ -0,0 +1,30 @@
+package com.example.employee.model;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+import lombok.Getter;
+import lombok.Setter;
+
+
+@Getter
+@Setter
+public class ImportStatus {
+
+    public enum State {
+        QUEUED, LOADING, MERGING, COMPLETED, FAILED
+    }
+
+    private UUID jobId;
+    private String fileName;
+    private State state;
+    private long rowsRead;
+    private long rowsRejected;
+    private long rowsInserted;
+    private long rowsConflicting;
+    private List<FieldError> errors;
+    private String message;
+    private OffsetDateTime startedAt;
+    private OffsetDateTime finishedAt;
+
+}
@@ -1,13 +1,94 @@
 package com.example.employee.repos;
 
 import com.example.employee.domain.Employee;
+import jakarta.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface EmployeeRepository extends JpaRepository<Employee, UUID> {
+public interface EmployeeRepository extends JpaRepository<Employee, UUID>,
+    EmployeeRepositoryCustom {
 
-    boolean existsByEmailIgnoreCase(String email);
+    int EXPORT_FETCH_SIZE = 1000;
+
+    /**
+     * @param emails lower-cased emails
+     * @return the subset of {@code emails} already taken, lower-cased
+     */
+    @Query("select lower(e.email) from Employee e where lower(e.email) in :emails")
+    List<String> findExistingEmails(Collection<String> emails);
+
+    /**
+     * Version of the whole table, bumped by every statement writing it and moving in commit order,
+     * see {@code employee_collection_version} in schema.sql.
+     */
+    @Query(value = "select version from employee_collection_version", nativeQuery = true)
+    long findCollectionVersion();
+
+    List<Employee> findAllByOrderByUuidAsc(Pageable pageable);
+
+    List<Employee> findByUuidGreaterThanOrderByUuidAsc(UUID uuid, Pageable pageable);
+
+    /**
+     * Employees having a rare {@code hobby}, looked up through the hobbies GIN index. The
+     * {@code offset 0} subquery keeps the planner from walking the primary key in uuid order and
+     * filtering every row, which it prefers under a limit as it cannot estimate hobbies missing
+     * from the statistics. All matches are sorted for each page, so this is only used for hobbies
+     * rarer than those listed, see {@link #isCommonHobby}.
+     */
+    @Query(value = "select * from (select * from employee "
+        + "where hobbies @> array[cast(:hobby as text)] offset 0) e order by uuid", nativeQuery = true)
+    List<Employee> findByHobbyOrderByUuid(String hobby, Pageable pageable);
+
+    @Query(value = "select * from (select * from employee "
+        + "where hobbies @> array[cast(:hobby as text)] and uuid > :uuid offset 0) e order by uuid",
+        nativeQuery = true)
+    List<Employee> findByHobbyAndUuidGreaterThanOrderByUuid(String hobby, UUID uuid,
+        Pageable pageable);
+
+    /**
+     * Employees having a common {@code hobby}. The planner estimates it from the statistics and
+     * walks the primary key from the cursor, stopping after the page, unless the hobby index and
+     * a sort are cheaper.
+     */
+    @Query(value = "select * from employee where hobbies @> array[cast(:hobby as text)] order by uuid",
+        nativeQuery = true)
+    List<Employee> findByCommonHobbyOrderByUuid(String hobby, Pageable pageable);
+
+    @Query(value = "select * from employee "
+        + "where hobbies @> array[cast(:hobby as text)] and uuid > :uuid order by uuid",
+        nativeQuery = true)
+    List<Employee> findByCommonHobbyAndUuidGreaterThanOrderByUuid(String hobby, UUID uuid,
+        Pageable pageable);
+
+    /**
+     * Whether {@code hobby} is among the most common elements of {@code hobbies} recorded by the
+     * last {@code ANALYZE}, which the planner estimates exactly.
+     */
+    @Query(value = "select exists (select 1 from pg_stats where schemaname = current_schema() "
+        + "and tablename = 'employee' and attname = 'hobbies' "
+        + "and cast(:hobby as text) = any(cast(cast(most_common_elems as text) as text[])))",
+        nativeQuery = true)
+    boolean isCommonHobby(String hobby);
+
+    /**
+     * Forward-only cursor over the whole table. Must be consumed inside a transaction, otherwise
+     * the PostgreSQL driver ignores the fetch size and buffers the complete result.
+     */
+    @QueryHints({
+        @QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE),
+        @QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true"),
+        @QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("select e from Employee e")
+    Stream<Employee> streamAll();
 
 }
@@ -0,0 +1,63 @@
+package com.example.employee.repos;
+
+import com.example.employee.domain.Employee;
+import com.example.employee.model.EmployeeSearchCriteria;
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+
+/**
+ * Statements Spring Data cannot derive: PostgreSQL {@code RETURNING} doing the work of a load plus
+ * a write in one round trip, searches generated from optional filters and the changes feed.
+ */
+public interface EmployeeRepositoryCustom {
+
+    /**
+     * Deletes the employee with one statement, leaving a tombstone for the changes feed.
+     *
+     * @return the deleted row as a detached entity, empty if there was none
+     */
+    Optional<Employee> deleteReturning(UUID uuid);
+
+    /**
+     * Deletes all given employees with one statement, leaving tombstones for the changes feed.
+     *
+     * @return the deleted rows, as detached entities
+     */
+    List<Employee> deleteAllReturning(Collection<UUID> uuids);
+
+    /**
+     * Employees matching all set filters, ordered by uuid.
+     *
+     * @param after uuid of the last employee of the previous page, {@code null} for the first
+     * @return at most {@code limit} employees, as detached entities
+     */
+    List<Employee> search(EmployeeSearchCriteria criteria, UUID after, int limit);
+
+    /**
+     * Employees changed and tombstones of employees deleted after the position
+     * ({@code changedAt}, {@code uuid}) and before {@code until}, ordered by that position.
+     *
+     * @return at most {@code limit} changes
+     */
+    List<Change> findChanges(OffsetDateTime changedAt, UUID uuid, OffsetDateTime until, int limit);
+
+    /**
+     * Deletes at most {@code limit} tombstones of employees deleted before {@code deletedAt}.
+     *
+     * @return number of tombstones deleted
+     */
+    int deleteTombstonesBefore(OffsetDateTime deletedAt, int limit);
+
+    /**
+     * @param changedAt {@code last_updated} of the employee or the time it was deleted
+     * @param employee the current state with {@code dateCreated} and {@code lastUpdated},
+     *     {@code null} for a deleted employee
+     */
+    record Change(UUID uuid, OffsetDateTime changedAt, Employee employee) {
+    }
+
+}
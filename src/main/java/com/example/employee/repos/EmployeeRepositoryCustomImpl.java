@@ -0,0 +1,121 @@
+package com.example.employee.repos;
+
+import com.example.employee.domain.Employee;
+import com.example.employee.model.EmployeeSearchCriteria;
+import java.sql.Array;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+
+public class EmployeeRepositoryCustomImpl implements EmployeeRepositoryCustom {
+
+    private static final String INSERT_TOMBSTONES = "tombstones AS (INSERT INTO employee_tombstone "
+            + "(uuid, deleted_at) SELECT uuid, now() FROM deleted "
+            + "ON CONFLICT (uuid) DO UPDATE SET deleted_at = EXCLUDED.deleted_at) ";
+
+    // the tombstones are written by the same statement, see findChanges
+    private static final String DELETE_SQL = "WITH deleted AS (DELETE FROM employee WHERE uuid = ? "
+            + "RETURNING uuid, email, full_name, birthday, hobbies), " + INSERT_TOMBSTONES
+            + "SELECT * FROM deleted";
+
+    private static final String DELETE_ALL_SQL = "WITH deleted AS (DELETE FROM employee WHERE uuid = ANY(?) "
+            + "RETURNING uuid, email, full_name, birthday, hobbies), " + INSERT_TOMBSTONES
+            + "SELECT * FROM deleted";
+
+    // each branch walks its (timestamp, uuid) index from the watermark and stops after :limit rows
+    private static final String CHANGES_SQL = "SELECT * FROM ("
+            + "(SELECT uuid, email, full_name, birthday, hobbies, date_created, last_updated AS changed_at "
+            + "FROM employee WHERE (last_updated, uuid) > (:changedAt, :uuid) AND last_updated < :until "
+            + "ORDER BY last_updated, uuid LIMIT :limit) "
+            + "UNION ALL "
+            + "(SELECT uuid, NULL, NULL, NULL, NULL, NULL, deleted_at "
+            + "FROM employee_tombstone WHERE (deleted_at, uuid) > (:changedAt, :uuid) AND deleted_at < :until "
+            + "ORDER BY deleted_at, uuid LIMIT :limit)"
+            + ") changes ORDER BY changed_at, uuid LIMIT :limit";
+
+    private static final String DELETE_TOMBSTONES_SQL = "DELETE FROM employee_tombstone WHERE uuid IN "
+            + "(SELECT uuid FROM employee_tombstone WHERE deleted_at < ? LIMIT ?)";
+
+    private static final RowMapper<Employee> EMPLOYEE_ROW_MAPPER =
+            EmployeeRepositoryCustomImpl::mapRow;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    public EmployeeRepositoryCustomImpl(final JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    }
+
+    @Override
+    public Optional<Employee> deleteReturning(final UUID uuid) {
+        return jdbcTemplate.query(DELETE_SQL, EMPLOYEE_ROW_MAPPER, uuid).stream().findFirst();
+    }
+
+    @Override
+    public List<Employee> deleteAllReturning(final Collection<UUID> uuids) {
+        if (uuids.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.query(DELETE_ALL_SQL,
+            ps -> ps.setArray(1, ps.getConnection().createArrayOf("uuid", uuids.toArray())),
+            EMPLOYEE_ROW_MAPPER);
+    }
+
+    @Override
+    public List<Employee> search(final EmployeeSearchCriteria criteria, final UUID after,
+        final int limit) {
+        final EmployeeSearchQuery query = EmployeeSearchQuery.of(criteria, after, limit);
+        return namedParameterJdbcTemplate.query(query.sql(), query.parameters(), EMPLOYEE_ROW_MAPPER);
+    }
+
+    @Override
+    public List<Change> findChanges(final OffsetDateTime changedAt, final UUID uuid,
+        final OffsetDateTime until, final int limit) {
+        final MapSqlParameterSource parameters = new MapSqlParameterSource()
+            .addValue("changedAt", changedAt)
+            .addValue("uuid", uuid)
+            .addValue("until", until)
+            .addValue("limit", limit);
+        return namedParameterJdbcTemplate.query(CHANGES_SQL, parameters, (rs, rowNum) -> {
+            Employee employee = null;
+            if (rs.getObject("date_created") != null) {
+                employee = mapRow(rs, rowNum);
+                employee.setDateCreated(rs.getObject("date_created", OffsetDateTime.class));
+                employee.setLastUpdated(rs.getObject("changed_at", OffsetDateTime.class));
+            }
+            return new Change(rs.getObject("uuid", UUID.class),
+                rs.getObject("changed_at", OffsetDateTime.class), employee);
+        });
+    }
+
+    @Override
+    public int deleteTombstonesBefore(final OffsetDateTime deletedAt, final int limit) {
+        return jdbcTemplate.update(DELETE_TOMBSTONES_SQL, deletedAt, limit);
+    }
+
+    private static Employee mapRow(final ResultSet rs, final int rowNum) throws SQLException {
+        final Employee employee = new Employee();
+        employee.setUuid(rs.getObject("uuid", UUID.class));
+        employee.setEmail(rs.getString("email"));
+        employee.setFullName(rs.getString("full_name"));
+        final String birthday = rs.getString("birthday");
+        if (birthday != null) {
+            employee.setBirthday(birthday);
+        }
+        final Array hobbies = rs.getArray("hobbies");
+        employee.setHobbies(hobbies == null ? null : Arrays.asList((String[]) hobbies.getArray()));
+        return employee;
+    }
+
+}
@@ -0,0 +1,115 @@
+package com.example.employee.repos;
+
+import com.example.employee.model.EmployeeSearchCriteria;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+
+
+/**
+ * SQL for an employee search. Every filter maps to a predicate served by an index on
+ * {@code employee}:
+ * <ul>
+ *   <li>birthday range - {@code employee_birthday_idx}</li>
+ *   <li>name prefix - {@code employee_full_name_lower_idx}, pattern ops B-tree on
+ *   {@code lower(full_name)}</li>
+ *   <li>email domain - {@code employee_email_trgm_idx}, trigram GIN on {@code lower(email)}</li>
+ *   <li>created range - {@code employee_date_created_idx}</li>
+ *   <li>updated range - {@code employee_last_updated_idx}</li>
+ * </ul>
+ * Matches are paged by uuid. The planner chooses between walking the primary key from the cursor,
+ * which stops after {@code limit} matches and suits broad filters, and collecting the matches
+ * through a filter index and sorting them, which suits selective ones. It estimates B-tree
+ * predicates well but not trigram matches, and tends to walk the primary key for a rare domain,
+ * scanning the whole table; with an email domain the filtering therefore runs in an
+ * {@code offset 0} subquery, which forces the index.
+ */
+final class EmployeeSearchQuery {
+
+    private static final String COLUMNS = "uuid, email, full_name, birthday, hobbies";
+
+    private final String sql;
+    private final MapSqlParameterSource parameters;
+
+    private EmployeeSearchQuery(final String sql, final MapSqlParameterSource parameters) {
+        this.sql = sql;
+        this.parameters = parameters;
+    }
+
+    static EmployeeSearchQuery of(final EmployeeSearchCriteria criteria, final UUID after,
+        final int limit) {
+        final List<String> predicates = new ArrayList<>();
+        final MapSqlParameterSource parameters = new MapSqlParameterSource();
+        if (criteria.getBirthdayFrom() != null) {
+            predicates.add("birthday >= :birthdayFrom");
+            parameters.addValue("birthdayFrom", criteria.getBirthdayFrom());
+        }
+        if (criteria.getBirthdayTo() != null) {
+            predicates.add("birthday <= :birthdayTo");
+            parameters.addValue("birthdayTo", criteria.getBirthdayTo());
+        }
+        if (hasText(criteria.getNamePrefix())) {
+            predicates.add("lower(full_name) LIKE :namePattern");
+            parameters.addValue("namePattern", escapeLike(criteria.getNamePrefix()) + "%");
+        }
+        if (hasText(criteria.getEmailDomain())) {
+            final String domain = criteria.getEmailDomain().startsWith("@")
+                    ? criteria.getEmailDomain().substring(1) : criteria.getEmailDomain();
+            predicates.add("lower(email) LIKE :emailPattern");
+            parameters.addValue("emailPattern", "%@" + escapeLike(domain));
+        }
+        if (criteria.getCreatedFrom() != null) {
+            predicates.add("date_created >= :createdFrom");
+            parameters.addValue("createdFrom", criteria.getCreatedFrom());
+        }
+        if (criteria.getCreatedTo() != null) {
+            predicates.add("date_created < :createdTo");
+            parameters.addValue("createdTo", criteria.getCreatedTo());
+        }
+        if (criteria.getUpdatedFrom() != null) {
+            predicates.add("last_updated >= :updatedFrom");
+            parameters.addValue("updatedFrom", criteria.getUpdatedFrom());
+        }
+        if (criteria.getUpdatedTo() != null) {
+            predicates.add("last_updated < :updatedTo");
+            parameters.addValue("updatedTo", criteria.getUpdatedTo());
+        }
+        if (after != null) {
+            predicates.add("uuid > :after");
+            parameters.addValue("after", after);
+        }
+        parameters.addValue("limit", limit);
+        final String where = predicates.isEmpty() ? "" : " WHERE " + String.join(" AND ", predicates);
+        final String sql = hasText(criteria.getEmailDomain())
+                ? "SELECT " + COLUMNS + " FROM (SELECT * FROM employee" + where + " OFFSET 0) e "
+                    + "ORDER BY uuid LIMIT :limit"
+                : "SELECT " + COLUMNS + " FROM employee" + where + " ORDER BY uuid LIMIT :limit";
+        return new EmployeeSearchQuery(sql, parameters);
+    }
+
+    String sql() {
+        return sql;
+    }
+
+    MapSqlParameterSource parameters() {
+        return parameters;
+    }
+
+    private static boolean hasText(final String value) {
+        return value != null && !value.isBlank();
+    }
+
+    /**
+     * Lower-cases {@code value} and escapes the LIKE wildcards, backslash being the default
+     * escape character.
+     */
+    private static String escapeLike(final String value) {
+        return value.trim().toLowerCase(Locale.ROOT)
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+    }
+
+}
@@ -0,0 +1,61 @@
+package com.example.employee.rest;
+
+import com.example.employee.model.ImportStatus;
+import com.example.employee.service.EmployeeImportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import java.net.URI;
+import java.util.UUID;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestPart;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+
+
+@RestController
+@RequestMapping(value = "/api/employees/import", produces = MediaType.APPLICATION_JSON_VALUE)
+public class EmployeeImportResource {
+
+    private final EmployeeImportService employeeImportService;
+
+    @Autowired
+    public EmployeeImportResource(final EmployeeImportService employeeImportService) {
+        this.employeeImportService = employeeImportService;
+    }
+
+    @Operation(summary = "Import employees from a CSV file with email, fullName, birthday "
+        + "and hobbies (';' separated) columns")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "202", description = "Import queued, poll the Location for progress",
+            content = { @Content(mediaType = "application/json",
+                schema = @Schema(implementation = ImportStatus.class)) }) })
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ImportStatus> importEmployees(@RequestPart("file") final MultipartFile file) {
+        final ImportStatus status = employeeImportService.start(file);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/employees/import/" + status.getJobId()))
+                .body(status);
+    }
+
+    @Operation(summary = "Get progress of an import")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Found the import",
+            content = { @Content(mediaType = "application/json",
+                schema = @Schema(implementation = ImportStatus.class)) }),
+        @ApiResponse(responseCode = "404", description = "Import not found",
+            content = @Content) })
+    @GetMapping("/{jobId}")
+    public ResponseEntity<ImportStatus> getImportStatus(@PathVariable final UUID jobId) {
+        return ResponseEntity.ok(employeeImportService.getStatus(jobId));
+    }
+
+}
@@ -1,8 +1,20 @@
 package com.example.employee.rest;
 
+import com.example.employee.config.Constants;
+import com.example.employee.model.BatchItemResult;
+import com.example.employee.model.EmployeeChanges;
 import com.example.employee.model.EmployeeDTO;
+import com.example.employee.model.EmployeePage;
+import com.example.employee.model.EmployeePatch;
+import com.example.employee.model.EmployeeSearchCriteria;
+import com.example.employee.service.EmployeeChangesService;
+import com.example.employee.service.EmployeeExportService;
 import com.example.employee.service.EmployeeService;
+import com.example.employee.service.IdempotencyService;
+import com.example.employee.util.ETags;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.headers.Header;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -12,55 +24,202 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.function.Supplier;
+import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 
 @RestController
-@RequestMapping(value = "/api/employees", produces = MediaType.APPLICATION_JSON_VALUE)
+@RequestMapping(value = "/api/employees",
+        produces = { MediaType.APPLICATION_JSON_VALUE, Constants.APPLICATION_SMILE })
 public class EmployeeResource {
 
 
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final MediaType CSV = MediaType.parseMediaType("text/csv");
+    private static final String MERGE_PATCH_JSON = "application/merge-patch+json";
+
     private final EmployeeService employeeService;
+    private final EmployeeExportService employeeExportService;
+    private final IdempotencyService idempotencyService;
+    private final EmployeeChangesService employeeChangesService;
 
     @Autowired
-    public EmployeeResource(final EmployeeService employeeService) {
+    public EmployeeResource(final EmployeeService employeeService,
+            final EmployeeExportService employeeExportService,
+            final IdempotencyService idempotencyService,
+            final EmployeeChangesService employeeChangesService) {
         this.employeeService = employeeService;
+        this.employeeExportService = employeeExportService;
+        this.idempotencyService = idempotencyService;
+        this.employeeChangesService = employeeChangesService;
     }
 
-    @Operation(summary = "Get all employees")
+    @Operation(summary = "Get a page of employees ordered by uuid")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Found employees",
+            headers = { @Header(name = Constants.NEXT_CURSOR_HEADER,
+                description = "Cursor of the next page, absent on the last page"),
+                @Header(name = HttpHeaders.ETAG,
+                    description = "Version of the whole collection, shared by all pages") },
             content = { @Content(mediaType = "application/json",
-                schema = @Schema(implementation = EmployeeDTO.class)) })
+                schema = @Schema(implementation = EmployeeDTO.class)),
+                @Content(mediaType = Constants.APPLICATION_SMILE,
+                    schema = @Schema(implementation = EmployeeDTO.class)) }),
+        @ApiResponse(responseCode = "304", description = "Collection unchanged since If-None-Match",
+            content = @Content),
+        @ApiResponse(responseCode = "400", description = "Invalid cursor or limit supplied",
+            content = @Content)
     })
     @GetMapping
-    public ResponseEntity<List<EmployeeDTO>> getAllEmployees() {
-        return ResponseEntity.ok(employeeService.findAll());
+    public ResponseEntity<List<EmployeeDTO>> getAllEmployees(
+            @Parameter(description = "Cursor returned in the " + Constants.NEXT_CURSOR_HEADER
+                + " header of the previous page")
+            @RequestParam(required = false) final String after,
+            @Parameter(description = "Page size, capped at " + Constants.MAX_PAGE_SIZE)
+            @RequestParam(defaultValue = "" + Constants.DEFAULT_PAGE_SIZE) final int limit,
+            @Parameter(description = "Only employees having this hobby")
+            @RequestParam(required = false) final String hobby,
+            @Parameter(description = "Return the whole table in one response")
+            @RequestParam(defaultValue = "false") final boolean unpaged,
+            final WebRequest webRequest) {
+        // read before the page, a concurrent write then only makes the tag older than the body
+        final String eTag = employeeService.getCollectionETag();
+        if (webRequest.checkNotModified(eTag)) {
+            return null;
+        }
+        if (unpaged && hobby == null) {
+            return ResponseEntity.ok().eTag(eTag).body(employeeService.findAll());
+        }
+        final EmployeePage page = employeeService.findPage(after, limit, hobby);
+        return pageResponse(page).eTag(eTag).body(page.getItems());
+    }
+
+    @Operation(summary = "Search employees, ordered by uuid")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Matching employees",
+            headers = @Header(name = Constants.NEXT_CURSOR_HEADER,
+                description = "Cursor of the next page, absent on the last page"),
+            content = { @Content(mediaType = "application/json",
+                schema = @Schema(implementation = EmployeeDTO.class)),
+                @Content(mediaType = Constants.APPLICATION_SMILE,
+                    schema = @Schema(implementation = EmployeeDTO.class)) }),
+        @ApiResponse(responseCode = "400", description = "Invalid filter, cursor or limit supplied",
+            content = @Content)
+    })
+    @GetMapping("/search")
+    public ResponseEntity<List<EmployeeDTO>> searchEmployees(
+            @ParameterObject final EmployeeSearchCriteria criteria,
+            @Parameter(description = "Cursor returned in the " + Constants.NEXT_CURSOR_HEADER
+                + " header of the previous page")
+            @RequestParam(required = false) final String after,
+            @Parameter(description = "Page size, capped at " + Constants.MAX_PAGE_SIZE)
+            @RequestParam(defaultValue = "" + Constants.DEFAULT_PAGE_SIZE) final int limit) {
+        final EmployeePage page = employeeService.search(criteria, after, limit);
+        return pageResponse(page).body(page.getItems());
+    }
+
+    @Operation(summary = "Employees created, updated or deleted after a watermark, oldest first")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Changes and the watermark to continue from",
+            content = { @Content(mediaType = "application/json",
+                schema = @Schema(implementation = EmployeeChanges.class)),
+                @Content(mediaType = Constants.APPLICATION_SMILE,
+                    schema = @Schema(implementation = EmployeeChanges.class)) }),
+        @ApiResponse(responseCode = "400", description = "Invalid watermark or limit supplied",
+            content = @Content),
+        @ApiResponse(responseCode = "410", description = "Watermark older than the retained deletes, resync",
+            content = @Content)
+    })
+    @GetMapping("/changes")
+    public ResponseEntity<EmployeeChanges> getChanges(
+            @Parameter(description = "Watermark of the previous response or an ISO-8601 timestamp; "
+                + "all employees if absent")
+            @RequestParam(required = false) final String since,
+            @Parameter(description = "Page size, capped at " + Constants.MAX_PAGE_SIZE)
+            @RequestParam(defaultValue = "" + Constants.DEFAULT_PAGE_SIZE) final int limit) {
+        return ResponseEntity.ok(employeeChangesService.changes(since, limit));
+    }
+
+    private static ResponseEntity.BodyBuilder pageResponse(final EmployeePage page) {
+        final ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(Constants.NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response;
+    }
+
+    @Operation(summary = "Stream all employees as NDJSON or CSV")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Export streamed",
+            content = { @Content(mediaType = "application/x-ndjson"),
+                @Content(mediaType = "text/csv") }),
+        @ApiResponse(responseCode = "400", description = "Unknown format supplied",
+            content = @Content) })
+    @GetMapping(value = "/export", produces = { "application/x-ndjson", "text/csv" })
+    public ResponseEntity<StreamingResponseBody> exportEmployees(
+            @Parameter(description = "ndjson or csv")
+            @RequestParam(defaultValue = "ndjson") final String format) {
+        final MediaType mediaType;
+        final StreamingResponseBody body;
+        switch (format) {
+            case "ndjson" -> {
+                mediaType = NDJSON;
+                body = employeeExportService::exportNdjson;
+            }
+            case "csv" -> {
+                mediaType = CSV;
+                body = employeeExportService::exportCsv;
+            }
+            default -> throw new IllegalArgumentException("Unknown export format: " + format);
+        }
+        return ResponseEntity.ok()
+                .contentType(mediaType)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("employees." + format).build().toString())
+                .body(body);
     }
 
     @Operation(summary = "Get a employee by its id")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Found the employee",
+            headers = @Header(name = HttpHeaders.ETAG, description = "Version of the employee"),
             content = { @Content(mediaType = "application/json",
                 schema = @Schema(implementation = EmployeeDTO.class)) }),
+        @ApiResponse(responseCode = "304", description = "Employee unchanged since If-None-Match",
+            content = @Content),
         @ApiResponse(responseCode = "400", description = "Invalid id supplied",
             content = @Content),
         @ApiResponse(responseCode = "404", description = "Employee not found",
             content = @Content) })
     @GetMapping("/{uuid}")
-    public ResponseEntity<EmployeeDTO> getEmployee(@PathVariable final UUID uuid) {
-        return ResponseEntity.ok(employeeService.get(uuid));
+    public ResponseEntity<EmployeeDTO> getEmployee(@PathVariable final UUID uuid,
+            final WebRequest webRequest) {
+        // the cached employee carries its version, a cache hit is answered without the database
+        final EmployeeDTO employeeDTO = employeeService.get(uuid);
+        final String eTag = ETags.of(uuid, employeeDTO.getLastUpdated());
+        if (webRequest.checkNotModified(eTag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(eTag).body(employeeDTO);
     }
 
     @Operation(summary = "Create employee from given payload")
@@ -69,41 +228,102 @@ public class EmployeeResource {
             content = { @Content(mediaType = "application/json") }),
         @ApiResponse(responseCode = "400", description = "Invalid data supplied",
             content = @Content),
+        @ApiResponse(responseCode = "409", description = "Request with the same idempotency key in progress",
+            content = @Content),
+        @ApiResponse(responseCode = "422", description = "Idempotency key used for a different request",
+            content = @Content),
         @ApiResponse(responseCode = "500", description = "Validation error",
             content = @Content) })
     @PostMapping
-    public ResponseEntity<Map<String, UUID>> createEmployee(@RequestBody @Valid final EmployeeDTO employeeDTO) {
-        final UUID createdUuid = employeeService.create(employeeDTO);
+    public ResponseEntity<Map<String, UUID>> createEmployee(@RequestBody @Valid final EmployeeDTO employeeDTO,
+            @Parameter(description = "Makes retries of this request return the first outcome")
+            @RequestHeader(name = Constants.IDEMPOTENCY_KEY_HEADER, required = false)
+            final String idempotencyKey) {
+        final UUID createdUuid = idempotent(idempotencyKey, "POST /api/employees", employeeDTO,
+                () -> employeeService.create(employeeDTO));
         return new ResponseEntity<>(Map.of("uuid", createdUuid), HttpStatus.CREATED);
     }
 
+    @Operation(summary = "Create up to " + Constants.MAX_BATCH_SIZE + " employees in one request")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Batch processed, see per-item status",
+            content = { @Content(mediaType = "application/json",
+                schema = @Schema(implementation = BatchItemResult.class)) }),
+        @ApiResponse(responseCode = "400", description = "Empty or oversized batch supplied",
+            content = @Content) })
+    @PostMapping("/batch")
+    public ResponseEntity<List<BatchItemResult>> createEmployees(
+            @RequestBody final List<EmployeeDTO> employeeDTOs) {
+        return ResponseEntity.ok(employeeService.createAll(employeeDTOs));
+    }
+
     @Operation(summary = "Update employee from given payload")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Employee successfully updated",
             content = { @Content(mediaType = "application/json") }),
         @ApiResponse(responseCode = "400", description = "Invalid data supplied",
             content = @Content),
+        @ApiResponse(responseCode = "409", description = "Request with the same idempotency key in progress",
+            content = @Content),
+        @ApiResponse(responseCode = "422", description = "Idempotency key used for a different request",
+            content = @Content),
         @ApiResponse(responseCode = "500", description = "Validation error",
             content = @Content) })
     @PutMapping("/{uuid}")
     public ResponseEntity<Map<String, UUID>> updateEmployee(@PathVariable final UUID uuid,
-            @RequestBody @Valid final EmployeeDTO employeeDTO) {
-        final UUID updatedUUID = employeeService.update(uuid, employeeDTO);
+            @RequestBody @Valid final EmployeeDTO employeeDTO,
+            @Parameter(description = "Makes retries of this request return the first outcome")
+            @RequestHeader(name = Constants.IDEMPOTENCY_KEY_HEADER, required = false)
+            final String idempotencyKey) {
+        final UUID updatedUUID = idempotent(idempotencyKey, "PUT /api/employees/" + uuid, employeeDTO,
+                () -> employeeService.update(uuid, employeeDTO));
         return new ResponseEntity<>(Map.of("uuid", updatedUUID), HttpStatus.OK);
     }
 
+    @Operation(summary = "Update the supplied fields of an employee (JSON Merge Patch)")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Employee successfully patched",
+            content = { @Content(mediaType = "application/json") }),
+        @ApiResponse(responseCode = "400", description = "Invalid data supplied",
+            content = @Content),
+        @ApiResponse(responseCode = "404", description = "Employee not found",
+            content = @Content) })
+    @PatchMapping(value = "/{uuid}", consumes = { MERGE_PATCH_JSON, MediaType.APPLICATION_JSON_VALUE })
+    public ResponseEntity<Map<String, UUID>> patchEmployee(@PathVariable final UUID uuid,
+            @RequestBody final EmployeePatch employeePatch) {
+        final UUID patchedUUID = employeeService.patch(uuid, employeePatch);
+        return new ResponseEntity<>(Map.of("uuid", patchedUUID), HttpStatus.OK);
+    }
+
     @Operation(summary = "Delete employee by it's id")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "202", description = "Employee successfully deleted",
             content = { @Content(mediaType = "application/json") }),
         @ApiResponse(responseCode = "400", description = "Invalid data supplied",
             content = @Content),
+        @ApiResponse(responseCode = "409", description = "Request with the same idempotency key in progress",
+            content = @Content),
+        @ApiResponse(responseCode = "422", description = "Idempotency key used for a different request",
+            content = @Content),
         @ApiResponse(responseCode = "500", description = "Validation error",
             content = @Content) })
     @DeleteMapping("/{uuid}")
-    public ResponseEntity<Void> deleteEmployee(@PathVariable final UUID uuid) {
-        employeeService.delete(uuid);
+    public ResponseEntity<Void> deleteEmployee(@PathVariable final UUID uuid,
+            @Parameter(description = "Makes retries of this request return the first outcome")
+            @RequestHeader(name = Constants.IDEMPOTENCY_KEY_HEADER, required = false)
+            final String idempotencyKey) {
+        idempotent(idempotencyKey, "DELETE /api/employees/" + uuid, null, () -> {
+            employeeService.delete(uuid);
+            return uuid;
+        });
         return ResponseEntity.noContent().build();
     }
 
+    private UUID idempotent(final String idempotencyKey, final String request, final Object body,
+            final Supplier<UUID> operation) {
+        return idempotencyKey == null
+                ? operation.get()
+                : idempotencyService.execute(idempotencyKey, request, body, operation);
+    }
+
 }
@@ -0,0 +1,139 @@
+package com.example.employee.service;
+
+import com.example.employee.config.Constants;
+import com.example.employee.model.EmployeeChange;
+import com.example.employee.model.EmployeeChanges;
+import com.example.employee.model.EmployeeDTO;
+import com.example.employee.model.EventTypes;
+import com.example.employee.repos.EmployeeRepository;
+import com.example.employee.repos.EmployeeRepositoryCustom.Change;
+import com.example.employee.util.CursorCodec;
+import com.example.employee.util.CursorCodec.Watermark;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.UUID;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+
+/**
+ * Incremental feed of employee changes ordered by ({@code last_updated}, {@code uuid}), with
+ * tombstones of deleted employees ordered by their deletion time. A client keeps the returned
+ * watermark and asks for the changes after it, instead of re-reading the whole table.
+ * <p>
+ * {@code last_updated} is set before commit, so a transaction can commit a change older than one
+ * already returned. Changes younger than {@code employee.changes.settle-ms} are therefore held
+ * back; it must exceed the longest write transaction plus the clock skew between instances.
+ * Every write path has to keep the time between stamping a row and committing within it: the CSV
+ * import stamps rows with {@code clock_timestamp()} while merging them and commits every chunk of
+ * {@code employee.import.merge-chunk-rows} lines, so only the merge of one chunk counts.
+ * <p>
+ * Tombstones are compacted after {@code employee.changes.tombstone-retention-days}; watermarks
+ * older than that get {@code 410 Gone} as deletes may be missing, and the client must resync.
+ */
+@Service
+public class EmployeeChangesService {
+    private static final Logger LOGGER = LogManager.getLogger(EmployeeChangesService.class);
+
+    private static final Watermark BEGINNING =
+            new Watermark(OffsetDateTime.of(1970, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC), new UUID(0, 0));
+    private static final int COMPACTION_BATCH_SIZE = 1000;
+
+    private final EmployeeRepository employeeRepository;
+    private final Duration settle;
+    private final Duration tombstoneRetention;
+
+    public EmployeeChangesService(final EmployeeRepository employeeRepository,
+            @Value("${employee.changes.settle-ms:5000}") final long settleMs,
+            @Value("${employee.changes.tombstone-retention-days:30}") final long tombstoneRetentionDays) {
+        this.employeeRepository = employeeRepository;
+        this.settle = Duration.ofMillis(settleMs);
+        this.tombstoneRetention = Duration.ofDays(tombstoneRetentionDays);
+    }
+
+    /**
+     * @param since watermark of the previous response or an ISO-8601 timestamp, {@code null} for
+     *     every employee and retained tombstone
+     */
+    @Transactional(readOnly = true)
+    public EmployeeChanges changes(final String since, final int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be positive");
+        }
+        final int pageSize = Math.min(limit, Constants.MAX_PAGE_SIZE);
+        final Watermark from = parse(since);
+        final OffsetDateTime now = OffsetDateTime.now();
+        if (since != null && from.changedAt().isBefore(now.minus(tombstoneRetention))) {
+            throw new ResponseStatusException(HttpStatus.GONE,
+                "Watermark is older than the retained tombstones, resync from the beginning");
+        }
+        LOGGER.info("Getting changes after: {}, limit: {}", from, pageSize);
+        // one extra row tells whether more changes are available
+        final OffsetDateTime until = now.minus(settle);
+        final List<Change> rows = employeeRepository.findChanges(from.changedAt(), from.uuid(), until,
+                pageSize + 1);
+        final boolean hasMore = rows.size() > pageSize;
+        final List<Change> page = hasMore ? rows.subList(0, pageSize) : rows;
+        final Watermark next;
+        if (hasMore) {
+            final Change last = page.get(page.size() - 1);
+            next = new Watermark(last.changedAt(), last.uuid());
+        } else {
+            // everything settled was returned; moving up keeps an idle client's watermark recent
+            next = from.changedAt().isBefore(until) ? new Watermark(until, BEGINNING.uuid()) : from;
+        }
+        final EmployeeChanges employeeChanges = new EmployeeChanges();
+        employeeChanges.setChanges(page.stream().map(row -> toChange(row, from)).toList());
+        employeeChanges.setHasMore(hasMore);
+        employeeChanges.setWatermark(CursorCodec.encodeWatermark(next));
+        return employeeChanges;
+    }
+
+    private static Watermark parse(final String since) {
+        if (since == null || since.isBlank()) {
+            return BEGINNING;
+        }
+        if (!since.contains(":")) {
+            return CursorCodec.decodeWatermark(since);
+        }
+        try {
+            return new Watermark(OffsetDateTime.parse(since), BEGINNING.uuid());
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("since must be a watermark or an ISO-8601 timestamp");
+        }
+    }
+
+    private static EmployeeChange toChange(final Change row, final Watermark from) {
+        final EmployeeChange employeeChange = new EmployeeChange();
+        employeeChange.setUuid(row.uuid());
+        employeeChange.setChangedAt(row.changedAt());
+        if (row.employee() == null) {
+            employeeChange.setChangeType(EventTypes.DELETED);
+        } else {
+            employeeChange.setChangeType(row.employee().getDateCreated().isAfter(from.changedAt())
+                    ? EventTypes.CREATED : EventTypes.UPDATED);
+            employeeChange.setEmployee(EmployeeService.mapToDTO(row.employee(), new EmployeeDTO()));
+        }
+        return employeeChange;
+    }
+
+    @Scheduled(fixedDelayString = "${employee.changes.compaction-interval-ms:3600000}")
+    public void compactTombstones() {
+        final OffsetDateTime deletedBefore = OffsetDateTime.now().minus(tombstoneRetention);
+        int deleted;
+        do {
+            deleted = employeeRepository.deleteTombstonesBefore(deletedBefore, COMPACTION_BATCH_SIZE);
+            LOGGER.debug("Compacted {} tombstones", deleted);
+        } while (deleted == COMPACTION_BATCH_SIZE);
+    }
+
+}
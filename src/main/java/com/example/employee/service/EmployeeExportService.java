@@ -0,0 +1,108 @@
+package com.example.employee.service;
+
+import com.example.employee.domain.Employee;
+import com.example.employee.model.EmployeeDTO;
+import com.example.employee.repos.EmployeeRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.stream.Stream;
+import javax.sql.DataSource;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.postgresql.PGConnection;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+
+/**
+ * Streams the employee table to a client without materializing it: heap use is bounded by the
+ * fetch size (NDJSON) or by the driver's copy buffer (CSV), not by the number of rows.
+ */
+@Service
+public class EmployeeExportService {
+    private static final Logger LOGGER = LogManager.getLogger(EmployeeExportService.class);
+
+    // hobbies are written ';' separated, the format accepted by the CSV import
+    private static final String CSV_EXPORT_SQL = "COPY (SELECT uuid, email, full_name, birthday, "
+            + "array_to_string(hobbies, ';') AS hobbies, date_created, last_updated "
+            + "FROM employee) TO STDOUT WITH (FORMAT csv, HEADER)";
+
+    private final EmployeeRepository employeeRepository;
+    private final EntityManager entityManager;
+    private final DataSource dataSource;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectWriter rowWriter;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public EmployeeExportService(final EmployeeRepository employeeRepository,
+        final EntityManager entityManager, final DataSource dataSource,
+        final PlatformTransactionManager transactionManager, final ObjectMapper objectMapper) {
+        this.employeeRepository = employeeRepository;
+        this.entityManager = entityManager;
+        this.dataSource = dataSource;
+        this.objectMapper = objectMapper;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        // the servlet stream is flushed by its own buffer, not once per row
+        this.rowWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    public void exportNdjson(final OutputStream outputStream) {
+        LOGGER.info("Exporting employees as NDJSON");
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<Employee> employees = employeeRepository.streamAll();
+                JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                // rows are newline terminated, not separated by Jackson's default space
+                generator.setRootValueSeparator(null);
+                final EmployeeDTO employeeDTO = new EmployeeDTO();
+                employees.forEach(employee -> {
+                    writeRow(generator, EmployeeService.mapToDTO(employee, employeeDTO));
+                    // keep the persistence context from growing with the result set
+                    entityManager.detach(employee);
+                });
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    public void exportCsv(final OutputStream outputStream) {
+        LOGGER.info("Exporting employees as CSV");
+        // on the read-only transaction's connection, so a configured replica serves it
+        readOnlyTransaction.executeWithoutResult(status -> {
+            final Connection connection = DataSourceUtils.getConnection(dataSource);
+            try {
+                connection.unwrap(PGConnection.class).getCopyAPI().copyOut(CSV_EXPORT_SQL, outputStream);
+            } catch (SQLException e) {
+                throw new IllegalStateException("CSV export failed", e);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                DataSourceUtils.releaseConnection(connection, dataSource);
+            }
+        });
+    }
+
+    private void writeRow(final JsonGenerator generator, final EmployeeDTO employeeDTO) {
+        try {
+            rowWriter.writeValue(generator, employeeDTO);
+            generator.writeRaw('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+}
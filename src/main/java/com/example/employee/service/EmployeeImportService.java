@@ -0,0 +1,438 @@
+package com.example.employee.service;
+
+import com.example.employee.events.EmployeeEventPublisher;
+import com.example.employee.model.EmployeeDTO;
+import com.example.employee.model.EmployeeEvent;
+import com.example.employee.model.EventTypes;
+import com.example.employee.model.FieldError;
+import com.example.employee.model.ImportStatus;
+import com.example.employee.util.CsvReader;
+import com.example.employee.util.NotFoundException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import javax.sql.DataSource;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+
+/**
+ * Loads large CSV files of employees. The upload is parsed incrementally and every valid row is
+ * streamed into a temporary staging table with {@code COPY ... FROM STDIN}; set-based
+ * {@code INSERT ... SELECT}s then merge the staging table into {@code employee} in chunks of
+ * {@code employee.import.merge-chunk-rows} lines, skipping rows whose email (case-insensitive) is
+ * already taken or repeated earlier in the file. Memory use does not depend on the size of the
+ * file.
+ * <p>
+ * Every chunk commits on its own, so the time between stamping a row and committing it stays
+ * within {@code employee.changes.settle-ms} however large the file is, see
+ * {@link EmployeeChangesService}. The import is therefore not atomic: when it fails, the chunks
+ * merged before stay and are counted as inserted.
+ * <p>
+ * Every imported employee gets a {@code CREATED} event. With the outbox publisher the events are
+ * written set-based by the chunk's merge from the rows it returned; any other publisher gets the
+ * returned rows of a chunk once it has committed.
+ */
+@Service
+public class EmployeeImportService {
+    private static final Logger LOGGER = LogManager.getLogger(EmployeeImportService.class);
+
+    private static final List<String> COLUMNS = List.of("email", "fullname", "birthday", "hobbies");
+    private static final int MAX_REPORTED_ERRORS = 100;
+    private static final int COPY_BUFFER_CHARS = 64 * 1024;
+    private static final int PROGRESS_INTERVAL = 10_000;
+
+    private static final String CREATE_STAGING_SQL = "CREATE TEMP TABLE employee_import "
+            + "(line_no bigint, email text, full_name text, birthday date, hobbies text)";
+    // indexed and analyzed once loaded, temporary tables are not analyzed by autovacuum
+    private static final String INDEX_STAGING_SQL = "CREATE INDEX ON employee_import (line_no)";
+    private static final String ANALYZE_STAGING_SQL = "ANALYZE employee_import";
+    private static final String DROP_STAGING_SQL = "DROP TABLE IF EXISTS employee_import";
+    private static final String COPY_SQL = "COPY employee_import "
+            + "(line_no, email, full_name, birthday, hobbies) FROM STDIN WITH (FORMAT csv)";
+    // merges the lines after ? up to ? lines; an email repeated in a later chunk is skipped by
+    // NOT EXISTS as the earlier one is committed.
+    // clock_timestamp(), not now(): rows are stamped as they are merged, see EmployeeChangesService
+    private static final String MERGE_CHUNK_CTE = "WITH chunk AS (SELECT * FROM employee_import "
+            + "WHERE line_no > ? ORDER BY line_no LIMIT ?), "
+            + "merged AS (INSERT INTO employee "
+            + "(uuid, email, full_name, birthday, hobbies, date_created, last_updated) "
+            + "SELECT gen_random_uuid(), s.email, s.full_name, s.birthday, "
+            + "string_to_array(s.hobbies, ';'), s.merged_at, s.merged_at "
+            + "FROM (SELECT i.*, clock_timestamp() AS merged_at "
+            + "FROM (SELECT DISTINCT ON (lower(email)) * FROM chunk "
+            + "ORDER BY lower(email), line_no) i "
+            + "WHERE NOT EXISTS (SELECT 1 FROM employee e WHERE lower(e.email) = lower(i.email))) s "
+            + "ON CONFLICT DO NOTHING RETURNING uuid, email, full_name, birthday, hobbies) ";
+    // the last line of the chunk, with every inserted row or a single row of nulls
+    private static final String MERGE_CHUNK_SQL = MERGE_CHUNK_CTE
+            + "SELECT c.last_line, m.* FROM (SELECT max(line_no) AS last_line FROM chunk) c "
+            + "LEFT JOIN merged m ON true";
+    // the last line of the chunk and the number of rows inserted, each with its event in the
+    // outbox; the payload is the JSON OutboxEventPublisher writes for an EmployeeEvent
+    private static final String MERGE_CHUNK_TO_OUTBOX_SQL = MERGE_CHUNK_CTE
+            + ", events AS (SELECT gen_random_uuid() AS event_id, m.* FROM merged m), "
+            + "outboxed AS (INSERT INTO employee_outbox "
+            + "(event_id, employee_uuid, event_type, payload) "
+            + "SELECT e.event_id, e.uuid, 'CREATED', json_strip_nulls(json_build_object("
+            + "'uuid', e.uuid, 'email', e.email, 'fullName', e.full_name, "
+            + "'birthday', e.birthday, 'hobbies', e.hobbies, "
+            + "'eventId', e.event_id, 'eventType', 'CREATED'))::text FROM events e) "
+            + "SELECT (SELECT max(line_no) FROM chunk), (SELECT count(*) FROM merged)";
+
+    private final DataSource dataSource;
+    private final Validator validator;
+    private final EmployeeEventPublisher employeeEventPublisher;
+    private final boolean outbox;
+    private final int mergeChunkRows;
+    private final ExecutorService executor;
+    private final Cache<UUID, ImportJob> jobs = Caffeine.newBuilder()
+            .expireAfterAccess(Duration.ofDays(1))
+            .build();
+
+    @Autowired
+    public EmployeeImportService(final DataSource dataSource, final Validator validator,
+        final EmployeeEventPublisher employeeEventPublisher,
+        @Value("${" + EmployeeEventPublisher.PUBLISHER_PROPERTY + ":outbox}")
+        final String publisher,
+        @Value("${employee.import.concurrency:2}") final int concurrency,
+        @Value("${employee.import.merge-chunk-rows:10000}") final int mergeChunkRows) {
+        this.dataSource = dataSource;
+        this.validator = validator;
+        this.employeeEventPublisher = employeeEventPublisher;
+        this.outbox = "outbox".equals(publisher);
+        this.mergeChunkRows = mergeChunkRows;
+        this.executor = Executors.newFixedThreadPool(concurrency);
+    }
+
+    /**
+     * Spools the upload to a temporary file and queues the import.
+     */
+    public ImportStatus start(final MultipartFile file) {
+        final ImportJob job = new ImportJob(UUID.randomUUID(), file.getOriginalFilename());
+        final Path upload;
+        try {
+            upload = Files.createTempFile("employee-import-", ".csv");
+            file.transferTo(upload);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        jobs.put(job.jobId, job);
+        LOGGER.info("Queued import {} of {}", job.jobId, job.fileName);
+        executor.execute(() -> run(job, upload));
+        return job.snapshot();
+    }
+
+    public ImportStatus getStatus(final UUID jobId) {
+        final ImportJob job = jobs.getIfPresent(jobId);
+        if (job == null) {
+            throw new NotFoundException();
+        }
+        return job.snapshot();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void run(final ImportJob job, final Path upload) {
+        job.startedAt = OffsetDateTime.now();
+        job.state = ImportStatus.State.LOADING;
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute(CREATE_STAGING_SQL);
+                }
+                final long staged = load(job, upload, connection.unwrap(PGConnection.class));
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute(INDEX_STAGING_SQL);
+                    statement.execute(ANALYZE_STAGING_SQL);
+                }
+                connection.commit();
+                job.state = ImportStatus.State.MERGING;
+                merge(job, connection);
+                job.rowsConflicting = staged - job.rowsInserted;
+            } catch (SQLException | IOException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                dropStaging(connection);
+            }
+            // finished before the state, a client seeing the final state also sees the time
+            job.finishedAt = OffsetDateTime.now();
+            job.state = ImportStatus.State.COMPLETED;
+            LOGGER.info("Import {} completed: {} read, {} rejected, {} inserted, {} conflicting",
+                job.jobId, job.rowsRead, job.rowsRejected, job.rowsInserted, job.rowsConflicting);
+        } catch (SQLException | IOException | RuntimeException e) {
+            LOGGER.warn("Import {} failed", job.jobId, e);
+            job.message = e.getMessage();
+            job.finishedAt = OffsetDateTime.now();
+            job.state = ImportStatus.State.FAILED;
+        } finally {
+            try {
+                Files.deleteIfExists(upload);
+            } catch (IOException e) {
+                LOGGER.warn("Cannot delete import upload {}", upload, e);
+            }
+        }
+    }
+
+    /**
+     * Merges the staging table chunk by chunk, committing each.
+     */
+    private void merge(final ImportJob job, final Connection connection) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                outbox ? MERGE_CHUNK_TO_OUTBOX_SQL : MERGE_CHUNK_SQL)) {
+            long lastLine = 0;
+            while (true) {
+                statement.setLong(1, lastLine);
+                statement.setInt(2, mergeChunkRows);
+                final long inserted;
+                final List<EmployeeEvent> employeeEvents = new ArrayList<>();
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    resultSet.next();
+                    lastLine = resultSet.getLong(1);
+                    if (resultSet.wasNull()) {
+                        return;
+                    }
+                    if (outbox) {
+                        inserted = resultSet.getLong(2);
+                    } else {
+                        do {
+                            if (resultSet.getObject("uuid") != null) {
+                                employeeEvents.add(toCreatedEvent(resultSet));
+                            }
+                        } while (resultSet.next());
+                        inserted = employeeEvents.size();
+                    }
+                }
+                connection.commit();
+                job.rowsInserted += inserted;
+                if (!employeeEvents.isEmpty()) {
+                    employeeEventPublisher.publishAll(employeeEvents);
+                }
+            }
+        }
+    }
+
+    private static EmployeeEvent toCreatedEvent(final ResultSet resultSet) throws SQLException {
+        final EmployeeEvent employeeEvent = new EmployeeEvent();
+        employeeEvent.setEventId(UUID.randomUUID());
+        employeeEvent.setEventType(EventTypes.CREATED);
+        employeeEvent.setUuid(resultSet.getObject("uuid", UUID.class));
+        employeeEvent.setEmail(resultSet.getString("email"));
+        employeeEvent.setFullName(resultSet.getString("full_name"));
+        employeeEvent.setBirthday(resultSet.getString("birthday"));
+        final Array hobbies = resultSet.getArray("hobbies");
+        if (hobbies != null) {
+            employeeEvent.setHobbies(Arrays.asList((String[]) hobbies.getArray()));
+        }
+        return employeeEvent;
+    }
+
+    /** The staging table outlives the commits and the connection goes back to the pool. */
+    private static void dropStaging(final Connection connection) {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(DROP_STAGING_SQL);
+            connection.commit();
+        } catch (SQLException e) {
+            LOGGER.warn("Cannot drop import staging table", e);
+        }
+    }
+
+    /**
+     * @return number of rows written to the staging table
+     */
+    private long load(final ImportJob job, final Path upload, final PGConnection connection)
+        throws IOException, SQLException {
+        final CopyIn copyIn = connection.getCopyAPI().copyIn(COPY_SQL);
+        long staged = 0;
+        try (BufferedReader bufferedReader = Files.newBufferedReader(upload, StandardCharsets.UTF_8);
+            CsvReader csvReader = new CsvReader(bufferedReader)) {
+            final int[] columnIndexes = columnIndexes(csvReader.readRecord());
+            final StringBuilder buffer = new StringBuilder(COPY_BUFFER_CHARS + 1024);
+            final EmployeeDTO employeeDTO = new EmployeeDTO();
+            long lineNumber = csvReader.getLineNumber();
+            List<String> record;
+            while ((record = csvReader.readRecord()) != null) {
+                job.rowsRead++;
+                employeeDTO.setEmail(column(record, columnIndexes[0]));
+                employeeDTO.setFullName(column(record, columnIndexes[1]));
+                employeeDTO.setBirthday(column(record, columnIndexes[2]));
+                final String hobbies = column(record, columnIndexes[3]);
+                employeeDTO.setHobbies(hobbies == null ? null : Arrays.asList(hobbies.split(";")));
+                if (isValid(job, lineNumber, employeeDTO)) {
+                    appendRow(buffer, lineNumber, employeeDTO, hobbies);
+                    staged++;
+                    if (buffer.length() >= COPY_BUFFER_CHARS) {
+                        writeToCopy(copyIn, buffer);
+                    }
+                }
+                if (job.rowsRead % PROGRESS_INTERVAL == 0) {
+                    LOGGER.debug("Import {}: {} rows read", job.jobId, job.rowsRead);
+                }
+                lineNumber = csvReader.getLineNumber();
+            }
+            writeToCopy(copyIn, buffer);
+            copyIn.endCopy();
+        } finally {
+            if (copyIn.isActive()) {
+                copyIn.cancelCopy();
+            }
+        }
+        return staged;
+    }
+
+    private boolean isValid(final ImportJob job, final long lineNumber, final EmployeeDTO employeeDTO) {
+        final Set<ConstraintViolation<EmployeeDTO>> violations = validator.validate(employeeDTO);
+        if (violations.isEmpty()) {
+            return true;
+        }
+        job.rowsRejected++;
+        if (job.errors.size() < MAX_REPORTED_ERRORS) {
+            final ConstraintViolation<EmployeeDTO> violation = violations.iterator().next();
+            final FieldError fieldError = new FieldError();
+            fieldError.setField("line " + lineNumber);
+            fieldError.setErrorCode(violation.getConstraintDescriptor().getAnnotation()
+                    .annotationType().getSimpleName());
+            fieldError.setMessage(violation.getPropertyPath() + ": " + violation.getMessage());
+            job.errors.add(fieldError);
+        }
+        return false;
+    }
+
+    private static int[] columnIndexes(final List<String> header) {
+        if (header == null) {
+            throw new IllegalArgumentException("CSV file is empty");
+        }
+        final List<String> normalized = header.stream()
+                .map(name -> name.trim().replace("_", "").toLowerCase(Locale.ROOT))
+                .toList();
+        final int[] indexes = new int[COLUMNS.size()];
+        for (int i = 0; i < COLUMNS.size(); i++) {
+            indexes[i] = normalized.indexOf(COLUMNS.get(i));
+        }
+        if (indexes[0] < 0 || indexes[1] < 0 || indexes[2] < 0) {
+            throw new IllegalArgumentException("CSV header must contain email, fullName and birthday");
+        }
+        return indexes;
+    }
+
+    private static String column(final List<String> record, final int index) {
+        if (index < 0 || index >= record.size() || record.get(index).isEmpty()) {
+            return null;
+        }
+        return record.get(index);
+    }
+
+    private static void appendRow(final StringBuilder buffer, final long lineNumber,
+        final EmployeeDTO employeeDTO, final String hobbies) {
+        buffer.append(lineNumber).append(',');
+        appendField(buffer, employeeDTO.getEmail());
+        buffer.append(',');
+        appendField(buffer, employeeDTO.getFullName());
+        buffer.append(',');
+        appendField(buffer, employeeDTO.getBirthday());
+        buffer.append(',');
+        appendField(buffer, hobbies);
+        buffer.append('\n');
+    }
+
+    /** Quotes every non-null value; an unquoted empty field is NULL to COPY. */
+    private static void appendField(final StringBuilder buffer, final String value) {
+        if (value == null) {
+            return;
+        }
+        buffer.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            if (c == '"') {
+                buffer.append('"');
+            }
+            buffer.append(c);
+        }
+        buffer.append('"');
+    }
+
+    private static void writeToCopy(final CopyIn copyIn, final StringBuilder buffer)
+        throws SQLException {
+        if (buffer.isEmpty()) {
+            return;
+        }
+        final byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+        copyIn.writeToCopy(bytes, 0, bytes.length);
+        buffer.setLength(0);
+    }
+
+    /** Progress of one import, written by its worker thread and read by status requests. */
+    private static class ImportJob {
+        private final UUID jobId;
+        private final String fileName;
+        private final List<FieldError> errors = Collections.synchronizedList(new ArrayList<>());
+        private volatile ImportStatus.State state = ImportStatus.State.QUEUED;
+        private volatile long rowsRead;
+        private volatile long rowsRejected;
+        private volatile long rowsInserted;
+        private volatile long rowsConflicting;
+        private volatile String message;
+        private volatile OffsetDateTime startedAt;
+        private volatile OffsetDateTime finishedAt;
+
+        ImportJob(final UUID jobId, final String fileName) {
+            this.jobId = jobId;
+            this.fileName = fileName;
+        }
+
+        ImportStatus snapshot() {
+            final ImportStatus status = new ImportStatus();
+            status.setJobId(jobId);
+            status.setFileName(fileName);
+            status.setState(state);
+            status.setRowsRead(rowsRead);
+            status.setRowsRejected(rowsRejected);
+            status.setRowsInserted(rowsInserted);
+            status.setRowsConflicting(rowsConflicting);
+            synchronized (errors) {
+                status.setErrors(List.copyOf(errors));
+            }
+            status.setMessage(message);
+            status.setStartedAt(startedAt);
+            status.setFinishedAt(finishedAt);
+            return status;
+        }
+    }
+
+}
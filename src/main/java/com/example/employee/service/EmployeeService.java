@@ -1,35 +1,91 @@
 package com.example.employee.service;
 
+import com.example.employee.config.CacheConfig;
+import com.example.employee.config.Constants;
 import com.example.employee.domain.Employee;
+import com.example.employee.events.EmployeeEventPublisher;
+import com.example.employee.model.BatchItemResult;
 import com.example.employee.model.EmployeeDTO;
 import com.example.employee.model.EmployeeEvent;
+import com.example.employee.model.EmployeePage;
+import com.example.employee.model.EmployeePatch;
+import com.example.employee.model.EmployeeSearchCriteria;
 import com.example.employee.model.EventTypes;
+import com.example.employee.model.FieldError;
 import com.example.employee.repos.EmployeeRepository;
+import com.example.employee.util.CursorCodec;
+import com.example.employee.util.ETags;
+import com.example.employee.util.InvalidDataException;
 import com.example.employee.util.NotFoundException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 
 @Service
 public class EmployeeService {
     private static final Logger LOGGER = LogManager.getLogger(EmployeeService.class);
 
+    private static final Duration HOBBY_STATISTICS_TTL = Duration.ofMinutes(10);
+
     private final EmployeeRepository employeeRepository;
-    private final RabbitTemplate rabbitTemplate;
+    private final EmployeeEventPublisher employeeEventPublisher;
+    private final IdempotencyService idempotencyService;
+    private final Validator validator;
+    private final Timer publishTimer;
+    private final Map<EventTypes, Counter> eventCounters = new EnumMap<>(EventTypes.class);
+    private final Cache<String, Boolean> commonHobbies = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfterWrite(HOBBY_STATISTICS_TTL)
+            .build();
 
     @Autowired
     public EmployeeService(final EmployeeRepository employeeRepository,
-        RabbitTemplate rabbitTemplate) {
+        final EmployeeEventPublisher employeeEventPublisher,
+        final IdempotencyService idempotencyService, final Validator validator,
+        final MeterRegistry meterRegistry) {
         this.employeeRepository = employeeRepository;
-        this.rabbitTemplate = rabbitTemplate;
+        this.employeeEventPublisher = employeeEventPublisher;
+        this.idempotencyService = idempotencyService;
+        this.validator = validator;
+        this.publishTimer = Timer.builder("employee.events.publish")
+                .description("Time spent handing events to the configured publisher")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        for (final EventTypes eventType : EventTypes.values()) {
+            eventCounters.put(eventType, Counter.builder("employee.events")
+                    .description("Employee change events published")
+                    .tag("type", eventType.name())
+                    .register(meterRegistry));
+        }
     }
 
+    @Transactional(readOnly = true)
     public List<EmployeeDTO> findAll() {
         LOGGER.info("Getting all employees");
         final List<Employee> employees = employeeRepository.findAll(Sort.by("uuid"));
@@ -38,6 +94,93 @@ public class EmployeeService {
                 .toList();
     }
 
+    /**
+     * Keyset page ordered by uuid: the primary-key index is walked from the cursor position,
+     * so the cost of a page does not grow with how far into the table it is.
+     *
+     * A common hobby pages like the whole table. A rare one is looked up through the hobbies index
+     * and its matches sorted, which costs at most as many rows as the least common hobby in the
+     * statistics has. Whether a hobby is common is read from the statistics every ten minutes.
+     *
+     * @param hobby only employees having this hobby, {@code null} for all
+     */
+    @Transactional(readOnly = true)
+    public EmployeePage findPage(final String cursor, final int limit, final String hobby) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be positive");
+        }
+        final int pageSize = Math.min(limit, Constants.MAX_PAGE_SIZE);
+        final UUID after = CursorCodec.decode(cursor);
+        LOGGER.info("Getting employees after: {}, limit: {}, hobby: {}", after, pageSize, hobby);
+        // one extra row tells whether another page exists without a count query
+        final PageRequest pageRequest = PageRequest.ofSize(pageSize + 1);
+        final List<Employee> employees;
+        if (hobby != null && commonHobbies.get(hobby, employeeRepository::isCommonHobby)) {
+            employees = after == null
+                    ? employeeRepository.findByCommonHobbyOrderByUuid(hobby, pageRequest)
+                    : employeeRepository.findByCommonHobbyAndUuidGreaterThanOrderByUuid(hobby, after,
+                            pageRequest);
+        } else if (hobby != null) {
+            employees = after == null
+                    ? employeeRepository.findByHobbyOrderByUuid(hobby, pageRequest)
+                    : employeeRepository.findByHobbyAndUuidGreaterThanOrderByUuid(hobby, after,
+                            pageRequest);
+        } else {
+            employees = after == null
+                    ? employeeRepository.findAllByOrderByUuidAsc(pageRequest)
+                    : employeeRepository.findByUuidGreaterThanOrderByUuidAsc(after, pageRequest);
+        }
+        return toPage(employees, pageSize);
+    }
+
+    /**
+     * Keyset page of the employees matching {@code criteria}, ordered by uuid. Each filter is
+     * served by its own index, see {@code EmployeeSearchQuery}.
+     */
+    @Transactional(readOnly = true)
+    public EmployeePage search(final EmployeeSearchCriteria criteria, final String cursor,
+        final int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be positive");
+        }
+        final int pageSize = Math.min(limit, Constants.MAX_PAGE_SIZE);
+        final UUID after = CursorCodec.decode(cursor);
+        LOGGER.info("Searching employees after: {}, limit: {}", after, pageSize);
+        return toPage(employeeRepository.search(criteria, after, pageSize + 1), pageSize);
+    }
+
+    /**
+     * @param employees up to {@code pageSize + 1} rows, the extra one telling whether another
+     *     page exists
+     */
+    private static EmployeePage toPage(final List<Employee> employees, final int pageSize) {
+        final boolean hasMore = employees.size() > pageSize;
+        final List<EmployeeDTO> items = employees.stream()
+                .limit(pageSize)
+                .map(employee -> mapToDTO(employee, new EmployeeDTO()))
+                .toList();
+        final EmployeePage page = new EmployeePage();
+        page.setItems(items);
+        if (hasMore) {
+            page.setNextCursor(CursorCodec.encode(items.get(items.size() - 1).getUuid()));
+        }
+        return page;
+    }
+
+    /**
+     * ETag shared by every page of the employee collection.
+     */
+    @Transactional(readOnly = true)
+    public String getCollectionETag() {
+        return ETags.ofCollection(employeeRepository.findCollectionVersion());
+    }
+
+    /**
+     * Read from the primary even with a replica configured, so a client reads its own writes and
+     * the cache is never filled from a lagging replica.
+     */
+    @Cacheable(cacheNames = CacheConfig.EMPLOYEES, sync = true)
+    @Transactional
     public EmployeeDTO get(final UUID uuid) {
         LOGGER.info("Getting employee: {}", uuid);
         return employeeRepository.findById(uuid)
@@ -45,47 +188,165 @@ public class EmployeeService {
                 .orElseThrow(NotFoundException::new);
     }
 
+    @Transactional
     public UUID create(final EmployeeDTO employeeDTO) {
         final Employee employee = new Employee();
         mapToEntity(employeeDTO, employee);
-        emailExists(employee.getEmail());
         LOGGER.info("Creating employee with id: {}", employee.getUuid());
-        UUID uuid = employeeRepository.save(employee).getUuid();
+        // a taken email surfaces here as a violation of the unique index on lower(email)
+        UUID uuid = employeeRepository.saveAndFlush(employee).getUuid();
         sendEvent(employee, EventTypes.CREATED);
+        idempotencyService.recordOutcome(uuid);
         return uuid;
     }
 
+    /**
+     * Creates every valid item of the batch in one transaction. Emails are checked with a single
+     * set-based query, rows go out as JDBC batches and events are published as one batch.
+     *
+     * @return one result per payload item, in payload order
+     */
+    @Transactional
+    public List<BatchItemResult> createAll(final List<EmployeeDTO> employeeDTOs) {
+        if (employeeDTOs.isEmpty() || employeeDTOs.size() > Constants.MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException(
+                "Batch must contain between 1 and " + Constants.MAX_BATCH_SIZE + " employees");
+        }
+        LOGGER.info("Creating batch of {} employees", employeeDTOs.size());
+        final List<BatchItemResult> results = new ArrayList<>(employeeDTOs.size());
+        final Set<String> batchEmails = new HashSet<>();
+        for (int i = 0; i < employeeDTOs.size(); i++) {
+            final BatchItemResult result = new BatchItemResult();
+            result.setIndex(i);
+            final List<FieldError> fieldErrors = validate(employeeDTOs.get(i));
+            if (!fieldErrors.isEmpty()) {
+                reject(result, "Invalid data supplied");
+                result.setFieldErrors(fieldErrors);
+            } else if (!batchEmails.add(normalizeEmail(employeeDTOs.get(i).getEmail()))) {
+                reject(result, "Email is duplicated in the batch");
+            }
+            results.add(result);
+        }
+
+        final Set<String> existingEmails = batchEmails.isEmpty()
+                ? Set.of()
+                : new HashSet<>(employeeRepository.findExistingEmails(batchEmails));
+        final List<Employee> employees = new ArrayList<>();
+        final List<BatchItemResult> created = new ArrayList<>();
+        for (final BatchItemResult result : results) {
+            if (result.getHttpStatus() != null) {
+                continue;
+            }
+            final EmployeeDTO employeeDTO = employeeDTOs.get(result.getIndex());
+            if (existingEmails.contains(normalizeEmail(employeeDTO.getEmail()))) {
+                reject(result, "Email already exists");
+                continue;
+            }
+            employees.add(mapToEntity(employeeDTO, new Employee()));
+            created.add(result);
+        }
+
+        employeeRepository.saveAllAndFlush(employees);
+        final List<EmployeeEvent> events = new ArrayList<>(employees.size());
+        for (int i = 0; i < employees.size(); i++) {
+            created.get(i).setHttpStatus(HttpStatus.CREATED.value());
+            created.get(i).setUuid(employees.get(i).getUuid());
+            events.add(mapToEvent(employees.get(i), new EmployeeEvent(), EventTypes.CREATED));
+        }
+        publishAll(events);
+        return results;
+    }
+
+    @CacheEvict(cacheNames = CacheConfig.EMPLOYEES, key = "#uuid")
+    @Transactional
     public UUID update(final UUID uuid, final EmployeeDTO employeeDTO) {
         final Employee employee = employeeRepository.findById(uuid)
                 .orElseThrow(NotFoundException::new);
-        if (!employee.getEmail().equalsIgnoreCase(employeeDTO.getEmail())) {
-            emailExists(employeeDTO.getEmail());
-        }
         mapToEntity(employeeDTO, employee);
         LOGGER.info("Updating employee with id: {}", employee.getUuid());
-        UUID updatedUUID = employeeRepository.save(employee).getUuid();
+        UUID updatedUUID = employeeRepository.saveAndFlush(employee).getUuid();
         sendEvent(employee, EventTypes.UPDATED);
+        idempotencyService.recordOutcome(updatedUUID);
         return updatedUUID;
     }
 
-    public void delete(final UUID uuid) {
+    /**
+     * Applies a JSON Merge Patch. Only the supplied fields are validated, only the fields whose
+     * value actually changes are written, and the {@code UPDATED} event carries just those.
+     * A patch changing nothing neither writes nor publishes.
+     */
+    @CacheEvict(cacheNames = CacheConfig.EMPLOYEES, key = "#uuid")
+    @Transactional
+    public UUID patch(final UUID uuid, final EmployeePatch employeePatch) {
+        final EmployeeDTO values = employeePatch.getValues();
+        final List<FieldError> fieldErrors = employeePatch.getFields().stream()
+                .flatMap(field -> toFieldErrors(validator.validateProperty(values, field)).stream())
+                .toList();
+        if (!fieldErrors.isEmpty()) {
+            throw new InvalidDataException(fieldErrors);
+        }
         final Employee employee = employeeRepository.findById(uuid)
+                .orElseThrow(NotFoundException::new);
+        final EmployeeEvent employeeEvent = new EmployeeEvent();
+        final List<String> changedFields = new ArrayList<>();
+        for (final String field : employeePatch.getFields()) {
+            if (applyField(field, values, employee, employeeEvent)) {
+                changedFields.add(field);
+            }
+        }
+        if (changedFields.isEmpty()) {
+            LOGGER.info("Patch of employee {} changes nothing", uuid);
+            return uuid;
+        }
+        LOGGER.info("Patching {} of employee with id: {}", changedFields, uuid);
+        // with dynamic updates the flush writes only the changed columns and last_updated
+        employeeRepository.saveAndFlush(employee);
+        employeeEvent.setEventId(UUID.randomUUID());
+        employeeEvent.setEventType(EventTypes.UPDATED);
+        employeeEvent.setUuid(uuid);
+        employeeEvent.setChangedFields(changedFields);
+        publish(employeeEvent);
+        return uuid;
+    }
+
+    @CacheEvict(cacheNames = CacheConfig.EMPLOYEES, key = "#uuid")
+    @Transactional
+    public void delete(final UUID uuid) {
+        LOGGER.info("Deleting employee with id: {}", uuid);
+        // one DELETE ... RETURNING, the event is built from the row it removed
+        final Employee employee = employeeRepository.deleteReturning(uuid)
             .orElseThrow(NotFoundException::new);
-        LOGGER.info("Deleting employee with id: {}", employee.getUuid());
-        employeeRepository.deleteById(uuid);
         sendEvent(employee, EventTypes.DELETED);
+        idempotencyService.recordOutcome(uuid);
     }
 
-    private EmployeeDTO mapToDTO(final Employee employee, final EmployeeDTO employeeDTO) {
+    /**
+     * Deletes the given employees with a single statement and publishes a {@code DELETED} event
+     * for each row that existed. Unknown uuids are ignored.
+     *
+     * @return uuids that were actually deleted
+     */
+    @Transactional
+    public List<UUID> deleteAll(final Collection<UUID> uuids) {
+        final List<Employee> deleted = employeeRepository.deleteAllReturning(uuids);
+        LOGGER.info("Deleted {} of {} employees", deleted.size(), uuids.size());
+        publishAll(deleted.stream()
+                .map(employee -> mapToEvent(employee, new EmployeeEvent(), EventTypes.DELETED))
+                .toList());
+        return deleted.stream().map(Employee::getUuid).toList();
+    }
+
+    static EmployeeDTO mapToDTO(final Employee employee, final EmployeeDTO employeeDTO) {
         employeeDTO.setUuid(employee.getUuid());
         employeeDTO.setEmail(employee.getEmail());
         employeeDTO.setFullName(employee.getFullName());
         employeeDTO.setBirthday(employee.getBirthday());
         employeeDTO.setHobbies(employee.getHobbies());
+        employeeDTO.setLastUpdated(employee.getLastUpdated());
         return employeeDTO;
     }
 
-    private Employee mapToEntity(final EmployeeDTO employeeDTO, final Employee employee) {
+    static Employee mapToEntity(final EmployeeDTO employeeDTO, final Employee employee) {
         employee.setEmail(employeeDTO.getEmail());
         employee.setFullName(employeeDTO.getFullName());
         employee.setBirthday(employeeDTO.getBirthday());
@@ -93,7 +354,7 @@ public class EmployeeService {
         return employee;
     }
 
-    private EmployeeEvent mapToEvent(final Employee employee, final EmployeeEvent employeeEvent, 
+    static EmployeeEvent mapToEvent(final Employee employee, final EmployeeEvent employeeEvent,
         EventTypes eventType) {
         employeeEvent.setEventId(UUID.randomUUID());
         employeeEvent.setEventType(eventType);
@@ -105,18 +366,91 @@ public class EmployeeService {
         return employeeEvent;
     }
 
-    public void emailExists(final String email) {
-        if (employeeRepository.existsByEmailIgnoreCase(email)) {
-            LOGGER.warn("Email already exists: {}", email);
-            throw new IllegalArgumentException("Email already exists");
+    /**
+     * Copies one patched field to the entity and the event if it differs from the stored value.
+     *
+     * @return whether the field changed
+     */
+    private static boolean applyField(final String field, final EmployeeDTO values,
+            final Employee employee, final EmployeeEvent employeeEvent) {
+        switch (field) {
+            case EmployeePatch.EMAIL -> {
+                if (Objects.equals(employee.getEmail(), values.getEmail())) {
+                    return false;
+                }
+                employee.setEmail(values.getEmail());
+                employeeEvent.setEmail(values.getEmail());
+            }
+            case EmployeePatch.FULL_NAME -> {
+                if (Objects.equals(employee.getFullName(), values.getFullName())) {
+                    return false;
+                }
+                employee.setFullName(values.getFullName());
+                employeeEvent.setFullName(values.getFullName());
+            }
+            case EmployeePatch.BIRTHDAY -> {
+                final String birthday = employee.getBirthday() == null
+                        ? null : employee.getBirthday().format(Constants.DATE_FORMAT);
+                if (Objects.equals(birthday, values.getBirthday())) {
+                    return false;
+                }
+                employee.setBirthday(values.getBirthday());
+                employeeEvent.setBirthday(values.getBirthday());
+            }
+            case EmployeePatch.HOBBIES -> {
+                if (Objects.equals(employee.getHobbies(), values.getHobbies())) {
+                    return false;
+                }
+                employee.setHobbies(values.getHobbies());
+                employeeEvent.setHobbies(values.getHobbies());
+            }
+            default -> throw new IllegalArgumentException("Unknown field: " + field);
         }
+        return true;
+    }
+
+    private List<FieldError> validate(final EmployeeDTO employeeDTO) {
+        return toFieldErrors(validator.validate(employeeDTO));
+    }
+
+    private static List<FieldError> toFieldErrors(
+            final Set<ConstraintViolation<EmployeeDTO>> violations) {
+        return violations.stream()
+                .map(violation -> {
+                    final FieldError fieldError = new FieldError();
+                    fieldError.setErrorCode(violation.getConstraintDescriptor().getAnnotation()
+                            .annotationType().getSimpleName());
+                    fieldError.setField(violation.getPropertyPath().toString());
+                    fieldError.setMessage(violation.getMessage());
+                    return fieldError;
+                })
+                .toList();
+    }
+
+    private static void reject(final BatchItemResult result, final String message) {
+        result.setHttpStatus(HttpStatus.BAD_REQUEST.value());
+        result.setMessage(message);
+    }
+
+    private static String normalizeEmail(final String email) {
+        return email.toLowerCase(Locale.ROOT);
     }
 
     private void sendEvent(Employee employee, EventTypes eventType) {
         EmployeeEvent employeeEvent = new EmployeeEvent();
         mapToEvent(employee, employeeEvent, eventType);
-        LOGGER.info("Sending event: {}", employeeEvent);
-        rabbitTemplate.convertAndSend("q.employee-updates", employeeEvent);
+        publish(employeeEvent);
+    }
+
+    private void publish(final EmployeeEvent employeeEvent) {
+        publishTimer.record(() -> employeeEventPublisher.publish(employeeEvent));
+        eventCounters.get(employeeEvent.getEventType()).increment();
+    }
+
+    private void publishAll(final List<EmployeeEvent> employeeEvents) {
+        publishTimer.record(() -> employeeEventPublisher.publishAll(employeeEvents));
+        employeeEvents.forEach(employeeEvent ->
+                eventCounters.get(employeeEvent.getEventType()).increment());
     }
 
 }
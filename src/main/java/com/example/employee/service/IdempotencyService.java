@@ -0,0 +1,236 @@
+package com.example.employee.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+
+/**
+ * Runs a write at most once per {@code Idempotency-Key}, so a retried request gets the outcome of
+ * the first one instead of creating a duplicate or publishing another event.
+ * <p>
+ * A key is claimed in {@code employee_idempotency_key} before the write, and the write records its
+ * result, the uuid of the employee, with {@link #recordOutcome} in its own transaction, so the
+ * change and its outcome commit together; a failed write releases the key. Completed keys are kept
+ * in a small in-memory cache in front of the table, and concurrent requests with the same key on
+ * one instance wait for the first instead of racing for the claim. On another instance they get
+ * {@code 409 Conflict} until the first completes. A key reused for a different request, compared
+ * by a SHA-256 of method, path and body, is rejected with {@code 422 Unprocessable Entity}.
+ * <p>
+ * Keys expire after {@code employee.idempotency.ttl-hours}. A claim left behind by an instance
+ * that died mid-request can be taken over after {@code employee.idempotency.lock-timeout-ms}.
+ */
+@Service
+public class IdempotencyService {
+    private static final Logger LOGGER = LogManager.getLogger(IdempotencyService.class);
+
+    public static final int MAX_KEY_LENGTH = 255;
+
+    private static final String CLAIM_SQL = "INSERT INTO employee_idempotency_key "
+            + "(idempotency_key, fingerprint) VALUES (?, ?) "
+            + "ON CONFLICT (idempotency_key) DO UPDATE SET fingerprint = EXCLUDED.fingerprint, created_at = now() "
+            + "WHERE employee_idempotency_key.employee_uuid IS NULL "
+            + "AND employee_idempotency_key.created_at < now() - ? * interval '1 millisecond'";
+    private static final String FIND_SQL = "SELECT fingerprint, employee_uuid "
+            + "FROM employee_idempotency_key WHERE idempotency_key = ?";
+    private static final String COMPLETE_SQL = "UPDATE employee_idempotency_key SET employee_uuid = ? "
+            + "WHERE idempotency_key = ?";
+    private static final String RELEASE_SQL = "DELETE FROM employee_idempotency_key "
+            + "WHERE idempotency_key = ? AND employee_uuid IS NULL";
+    private static final String CLEANUP_SQL = "DELETE FROM employee_idempotency_key WHERE idempotency_key IN "
+            + "(SELECT idempotency_key FROM employee_idempotency_key "
+            + "WHERE created_at < now() - ? * interval '1 millisecond' LIMIT ?)";
+    private static final int CLEANUP_BATCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final long ttlMillis;
+    private final long lockTimeoutMillis;
+    // key claimed by the request running on this thread, until its write records the outcome
+    private final ThreadLocal<String> claimedKey = new ThreadLocal<>();
+    private final Cache<String, Outcome> completed;
+    private final ConcurrentMap<String, CompletableFuture<Outcome>> inFlight = new ConcurrentHashMap<>();
+    private final Counter executed;
+    private final Counter cached;
+    private final Counter stored;
+    private final Counter joined;
+
+    public IdempotencyService(final JdbcTemplate jdbcTemplate, final ObjectMapper objectMapper,
+            final MeterRegistry meterRegistry,
+            @Value("${employee.idempotency.ttl-hours:24}") final long ttlHours,
+            @Value("${employee.idempotency.lock-timeout-ms:60000}") final long lockTimeoutMillis,
+            @Value("${employee.idempotency.cache-size:10000}") final long cacheSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.ttlMillis = Duration.ofHours(ttlHours).toMillis();
+        this.lockTimeoutMillis = lockTimeoutMillis;
+        this.completed = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMillis))
+                .build();
+        this.executed = requests(meterRegistry, "executed");
+        this.cached = requests(meterRegistry, "cached");
+        this.stored = requests(meterRegistry, "stored");
+        this.joined = requests(meterRegistry, "joined");
+    }
+
+    private static Counter requests(final MeterRegistry meterRegistry, final String outcome) {
+        return Counter.builder("employee.idempotency.requests")
+                .description("Requests carrying an idempotency key, by how they were answered")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /**
+     * @param request method and path of the request, e.g. {@code POST /api/employees}
+     * @param body request body, {@code null} if there is none
+     * @return uuid returned by {@code operation}, now or by the first request with this key
+     */
+    public UUID execute(final String key, final String request, final Object body,
+            final Supplier<UUID> operation) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException(
+                "Idempotency key must have between 1 and " + MAX_KEY_LENGTH + " characters");
+        }
+        final byte[] fingerprint = fingerprint(request, body);
+        final Outcome cachedOutcome = completed.getIfPresent(key);
+        if (cachedOutcome != null) {
+            cached.increment();
+            return cachedOutcome.replay(fingerprint);
+        }
+        final CompletableFuture<Outcome> leader = new CompletableFuture<>();
+        final CompletableFuture<Outcome> running = inFlight.putIfAbsent(key, leader);
+        if (running != null) {
+            joined.increment();
+            return join(running).replay(fingerprint);
+        }
+        try {
+            final Outcome outcome = claimAndRun(key, fingerprint, operation);
+            completed.put(key, outcome);
+            leader.complete(outcome);
+            return outcome.uuid();
+        } catch (RuntimeException e) {
+            leader.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, leader);
+        }
+    }
+
+    private Outcome claimAndRun(final String key, final byte[] fingerprint, final Supplier<UUID> operation) {
+        if (jdbcTemplate.update(CLAIM_SQL, key, fingerprint, lockTimeoutMillis) == 0) {
+            final Outcome outcome = find(key);
+            if (outcome == null || outcome.uuid() == null) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "A request with this idempotency key is in progress");
+            }
+            stored.increment();
+            outcome.replay(fingerprint);
+            return outcome;
+        }
+        final UUID uuid;
+        claimedKey.set(key);
+        try {
+            uuid = operation.get();
+            if (claimedKey.get() != null) {
+                // an operation that does not record its outcome itself
+                jdbcTemplate.update(COMPLETE_SQL, uuid, key);
+            }
+        } catch (RuntimeException e) {
+            jdbcTemplate.update(RELEASE_SQL, key);
+            throw e;
+        } finally {
+            claimedKey.remove();
+        }
+        executed.increment();
+        return new Outcome(fingerprint, uuid);
+    }
+
+    /**
+     * Records {@code uuid} as the outcome of the key claimed by the current request, in the
+     * transaction of its write. Does nothing for a request without a key.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordOutcome(final UUID uuid) {
+        final String key = claimedKey.get();
+        if (key != null) {
+            jdbcTemplate.update(COMPLETE_SQL, uuid, key);
+            claimedKey.remove();
+        }
+    }
+
+    private Outcome find(final String key) {
+        final List<Outcome> outcomes = jdbcTemplate.query(FIND_SQL, (rs, rowNum) ->
+            new Outcome(rs.getBytes("fingerprint"), rs.getObject("employee_uuid", UUID.class)), key);
+        return outcomes.isEmpty() ? null : outcomes.get(0);
+    }
+
+    private static Outcome join(final CompletableFuture<Outcome> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            // the same failure the first request got
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    private byte[] fingerprint(final String request, final Object body) {
+        try {
+            final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(request.getBytes(StandardCharsets.UTF_8));
+            if (body != null) {
+                digest.update(objectMapper.writeValueAsBytes(body));
+            }
+            return digest.digest();
+        } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${employee.idempotency.cleanup-interval-ms:600000}")
+    public void deleteExpired() {
+        int deleted;
+        do {
+            deleted = jdbcTemplate.update(CLEANUP_SQL, ttlMillis, CLEANUP_BATCH_SIZE);
+            LOGGER.debug("Deleted {} expired idempotency keys", deleted);
+        } while (deleted == CLEANUP_BATCH_SIZE);
+    }
+
+    private record Outcome(byte[] fingerprint, UUID uuid) {
+
+        UUID replay(final byte[] requestFingerprint) {
+            if (!Arrays.equals(fingerprint, requestFingerprint)) {
+                throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY,
+                    "Idempotency key was already used for a different request");
+            }
+            return uuid;
+        }
+
+    }
+
+}
@@ -0,0 +1,89 @@
+package com.example.employee.util;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+import java.util.UUID;
+
+
+/**
+ * Encodes keyset positions as opaque, URL-safe cursors so clients never depend on the
+ * underlying key format.
+ */
+public final class CursorCodec {
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private CursorCodec() {
+    }
+
+    public static String encode(final UUID uuid) {
+        final ByteBuffer buffer = ByteBuffer.allocate(16);
+        buffer.putLong(uuid.getMostSignificantBits());
+        buffer.putLong(uuid.getLeastSignificantBits());
+        return ENCODER.encodeToString(buffer.array());
+    }
+
+    /**
+     * @return the decoded position, or {@code null} for an absent cursor (first page)
+     * @throws IllegalArgumentException if the cursor was not produced by {@link #encode(UUID)}
+     */
+    public static UUID decode(final String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        final byte[] bytes;
+        try {
+            bytes = DECODER.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        if (bytes.length != 16) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+
+    /**
+     * Encodes a position in the changes feed, with the microsecond precision of the database.
+     */
+    public static String encodeWatermark(final Watermark watermark) {
+        final ByteBuffer buffer = ByteBuffer.allocate(24);
+        buffer.putLong(ChronoUnit.MICROS.between(Instant.EPOCH, watermark.changedAt().toInstant()));
+        buffer.putLong(watermark.uuid().getMostSignificantBits());
+        buffer.putLong(watermark.uuid().getLeastSignificantBits());
+        return ENCODER.encodeToString(buffer.array());
+    }
+
+    /**
+     * @throws IllegalArgumentException if the watermark was not produced by
+     *     {@link #encodeWatermark(Watermark)}
+     */
+    public static Watermark decodeWatermark(final String watermark) {
+        final byte[] bytes;
+        try {
+            bytes = DECODER.decode(watermark);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid watermark");
+        }
+        if (bytes.length != 24) {
+            throw new IllegalArgumentException("Invalid watermark");
+        }
+        final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        final OffsetDateTime changedAt = Instant.EPOCH.plus(buffer.getLong(), ChronoUnit.MICROS)
+                .atOffset(ZoneOffset.UTC);
+        return new Watermark(changedAt, new UUID(buffer.getLong(), buffer.getLong()));
+    }
+
+    /**
+     * Position after the change of employee {@code uuid} at {@code changedAt}.
+     */
+    public record Watermark(OffsetDateTime changedAt, UUID uuid) {
+    }
+
+}
@@ -0,0 +1,39 @@
+package com.example.employee.util;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+
+/**
+ * Entity tags derived from stored versions, so they can be checked against
+ * {@code If-None-Match} without building a representation. They are weak: a version is served as
+ * JSON or Smile, compressed or not, and Tomcat only compresses responses with weak tags.
+ */
+public final class ETags {
+
+    private ETags() {
+    }
+
+    /**
+     * Tag of a single employee, changing with every update of the row.
+     */
+    public static String of(final UUID uuid, final OffsetDateTime lastUpdated) {
+        return "W/\"" + uuid + "-" + Long.toHexString(micros(lastUpdated.toInstant())) + "\"";
+    }
+
+    /**
+     * Tag of the employee collection, changing with every committed write of the table.
+     *
+     * @param version the counter bumped by every statement writing {@code employee}
+     */
+    public static String ofCollection(final long version) {
+        return "W/\"" + Long.toHexString(version) + "\"";
+    }
+
+    // PostgreSQL keeps microseconds, a freshly saved entity may carry nanoseconds
+    private static long micros(final Instant instant) {
+        return instant.getEpochSecond() * 1_000_000 + instant.getNano() / 1_000;
+    }
+
+}
@@ -0,0 +1,24 @@
+package com.example.employee.util;
+
+import com.example.employee.model.FieldError;
+import java.util.List;
+
+
+/**
+ * Payload rejected by validation outside of request binding, reported like
+ * {@link org.springframework.web.bind.MethodArgumentNotValidException}.
+ */
+public class InvalidDataException extends RuntimeException {
+
+    private final List<FieldError> fieldErrors;
+
+    public InvalidDataException(final List<FieldError> fieldErrors) {
+        super("Invalid data supplied");
+        this.fieldErrors = fieldErrors;
+    }
+
+    public List<FieldError> getFieldErrors() {
+        return fieldErrors;
+    }
+
+}
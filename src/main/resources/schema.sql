@@ -4,8 +4,110 @@ CREATE TABLE IF NOT EXISTS public.employee (
                                  date_created timestamptz(6) NOT NULL,
                                  email varchar(255) NULL,
                                  full_name varchar(255) NULL,
-                                 hobbies varchar(255) NULL,
+                                 hobbies text[] NULL,
                                  last_updated timestamptz(6) NOT NULL,
-                                 CONSTRAINT employee_pkey PRIMARY KEY (uuid),
-                                 CONSTRAINT uk_fopic1oh5oln2khj8eat6ino0 UNIQUE (email)
-);
\ No newline at end of file
+                                 CONSTRAINT employee_pkey PRIMARY KEY (uuid)
+);
+
+-- emails used to be unique case-sensitively (uk_fopic1oh5oln2khj8eat6ino0); while rows differing only
+-- in case exist the index cannot be built, so they are reported and the old constraint is kept
+DO '
+DECLARE
+    duplicates text;
+BEGIN
+    IF to_regclass(''public.employee_email_lower_key'') IS NULL THEN
+        SELECT string_agg(email, '', '') INTO duplicates
+        FROM (SELECT lower(email) AS email FROM public.employee
+              GROUP BY lower(email) HAVING count(*) > 1 ORDER BY 1 LIMIT 20) d;
+        IF duplicates IS NOT NULL THEN
+            RAISE WARNING ''employee_email_lower_key not created, emails used by more than one employee: %'',
+                duplicates;
+            RETURN;
+        END IF;
+        CREATE UNIQUE INDEX employee_email_lower_key ON public.employee (lower(email));
+    END IF;
+    ALTER TABLE public.employee DROP CONSTRAINT IF EXISTS uk_fopic1oh5oln2khj8eat6ino0;
+END';
+
+-- hobbies used to be a ';' joined varchar(255); single-quoted body as the script is split on ';'
+DO '
+BEGIN
+    IF EXISTS (SELECT 1 FROM information_schema.columns
+               WHERE table_schema = ''public'' AND table_name = ''employee''
+                 AND column_name = ''hobbies'' AND data_type <> ''ARRAY'') THEN
+        ALTER TABLE public.employee ALTER COLUMN hobbies TYPE text[]
+            USING string_to_array(hobbies, '';'');
+    END IF;
+END';
+
+CREATE INDEX IF NOT EXISTS employee_hobbies_idx ON public.employee USING gin (hobbies);
+
+-- search filters, see EmployeeSearchQuery
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX IF NOT EXISTS employee_birthday_idx ON public.employee (birthday);
+CREATE INDEX IF NOT EXISTS employee_date_created_idx ON public.employee (date_created);
+CREATE INDEX IF NOT EXISTS employee_last_updated_idx ON public.employee (last_updated, uuid);
+CREATE INDEX IF NOT EXISTS employee_full_name_lower_idx ON public.employee
+    (lower(full_name) text_pattern_ops);
+CREATE INDEX IF NOT EXISTS employee_email_trgm_idx ON public.employee
+    USING gin (lower(email) gin_trgm_ops);
+
+CREATE TABLE IF NOT EXISTS public.employee_outbox (
+                                 id bigserial NOT NULL,
+                                 event_id uuid NOT NULL,
+                                 employee_uuid uuid NOT NULL,
+                                 event_type varchar(16) NOT NULL,
+                                 payload text NOT NULL,
+                                 created_at timestamptz(6) NOT NULL DEFAULT now(),
+                                 CONSTRAINT employee_outbox_pkey PRIMARY KEY (id)
+);
+
+-- newer events of an employee, see OutboxRelay coalescing
+CREATE INDEX IF NOT EXISTS employee_outbox_employee_uuid_idx ON public.employee_outbox
+    (employee_uuid, created_at);
+
+-- employee_uuid is null while the request holding the key is running, see IdempotencyService
+CREATE TABLE IF NOT EXISTS public.employee_idempotency_key (
+                                 idempotency_key varchar(255) NOT NULL,
+                                 fingerprint bytea NOT NULL,
+                                 employee_uuid uuid NULL,
+                                 created_at timestamptz(6) NOT NULL DEFAULT now(),
+                                 CONSTRAINT employee_idempotency_key_pkey PRIMARY KEY (idempotency_key)
+);
+
+CREATE INDEX IF NOT EXISTS employee_idempotency_key_created_at_idx ON public.employee_idempotency_key
+    (created_at);
+
+-- deleted employees for the changes feed, see EmployeeChangesService
+CREATE TABLE IF NOT EXISTS public.employee_tombstone (
+                                 uuid uuid NOT NULL,
+                                 deleted_at timestamptz(6) NOT NULL,
+                                 CONSTRAINT employee_tombstone_pkey PRIMARY KEY (uuid)
+);
+
+CREATE INDEX IF NOT EXISTS employee_tombstone_deleted_at_idx ON public.employee_tombstone
+    (deleted_at, uuid);
+
+-- collection ETag, see EmployeeService.getCollectionETag: every statement writing employee bumps
+-- the single row, which stays locked until commit, so the version moves in commit order and
+-- concurrent writers serialize on it for the rest of their transaction
+CREATE TABLE IF NOT EXISTS public.employee_collection_version (
+                                 id boolean NOT NULL DEFAULT true,
+                                 version bigint NOT NULL,
+                                 CONSTRAINT employee_collection_version_pkey PRIMARY KEY (id),
+                                 CONSTRAINT employee_collection_version_single CHECK (id)
+);
+
+INSERT INTO public.employee_collection_version (id, version) VALUES (true, 0)
+    ON CONFLICT (id) DO NOTHING;
+
+CREATE OR REPLACE FUNCTION public.employee_collection_version_bump() RETURNS trigger
+    LANGUAGE plpgsql AS '
+BEGIN
+    UPDATE public.employee_collection_version SET version = version + 1;
+    RETURN NULL;
+END';
+
+CREATE OR REPLACE TRIGGER employee_collection_version_bump
+    AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON public.employee
+    FOR EACH STATEMENT EXECUTE FUNCTION public.employee_collection_version_bump();
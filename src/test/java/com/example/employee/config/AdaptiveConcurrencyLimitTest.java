@@ -0,0 +1,94 @@
+package com.example.employee.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.Test;
+
+class AdaptiveConcurrencyLimitTest {
+
+  private static final long WINDOW_NANOS =
+      TimeUnit.MILLISECONDS.toNanos(AdaptiveConcurrencyLimit.WINDOW_MILLIS);
+
+  private final AtomicBoolean congested = new AtomicBoolean();
+  private long now;
+  private final AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit("read", 10, 2, 50,
+      congested::get, new SimpleMeterRegistry(), () -> now);
+
+  @Test
+  void rejectsBeyondTheLimitUntilReleased() {
+    for (int i = 0; i < 10; i++) {
+      assertTrue(limit.tryAcquire());
+    }
+
+    assertFalse(limit.tryAcquire());
+    limit.release();
+    assertTrue(limit.tryAcquire());
+    assertEquals(1, limit.getRejected());
+  }
+
+  @Test
+  void growsWhileLatencyIsSteadyAndTheLimitIsUsed() {
+    window(10, 5);
+    window(10, 5);
+
+    assertTrue(limit.getLimit() > 10);
+  }
+
+  @Test
+  void keepsTheLimitWhileMostOfItIsUnused() {
+    window(2, 5);
+    window(2, 5);
+
+    assertEquals(10, limit.getLimit());
+  }
+
+  @Test
+  void shrinksWhenLatencyRises() {
+    window(10, 5);
+    for (int i = 0; i < 5; i++) {
+      window(10, 50);
+    }
+
+    assertTrue(limit.getLimit() < 10);
+  }
+
+  @Test
+  void shrinksWhileRequestsWaitForAConnection() {
+    window(10, 5);
+    congested.set(true);
+    for (int i = 0; i < 5; i++) {
+      window(10, 5);
+    }
+
+    assertTrue(limit.getLimit() < 10);
+  }
+
+  @Test
+  void staysWithinItsBounds() {
+    for (int i = 0; i < 200; i++) {
+      congested.set(i < 50);
+      window(limit.getLimit(), 5);
+      assertTrue(limit.getLimit() >= 2 && limit.getLimit() <= 50);
+    }
+    assertEquals(50, limit.getLimit());
+  }
+
+  // one full window of requests, up to concurrency of them in flight at a time
+  private void window(int concurrency, long latencyMs) {
+    now += WINDOW_NANOS;
+    for (int i = 0; i < AdaptiveConcurrencyLimit.WINDOW_SAMPLES; i += concurrency) {
+      int admitted = Math.min(concurrency, limit.getLimit());
+      for (int j = 0; j < admitted; j++) {
+        assertTrue(limit.tryAcquire());
+      }
+      for (int j = 0; j < admitted; j++) {
+        limit.release(TimeUnit.MILLISECONDS.toNanos(latencyMs));
+      }
+    }
+  }
+}
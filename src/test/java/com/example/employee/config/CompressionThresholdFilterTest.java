@@ -0,0 +1,55 @@
+package com.example.employee.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.unit.DataSize;
+
+class CompressionThresholdFilterTest {
+
+  private final CompressionThresholdFilter filter =
+      new CompressionThresholdFilter(DataSize.ofBytes(100));
+
+  @Test
+  void bodyBelowThresholdIsNotCommittedByFlush() throws Exception {
+    MockHttpServletResponse response = new MockHttpServletResponse();
+
+    filter.doFilter(new MockHttpServletRequest(), response, new MockFilterChain(writing(99)));
+
+    assertFalse(response.isCommitted());
+    assertEquals(99, response.getContentAsByteArray().length);
+  }
+
+  @Test
+  void bodyAtThresholdIsFlushed() throws Exception {
+    MockHttpServletResponse response = new MockHttpServletResponse();
+
+    filter.doFilter(new MockHttpServletRequest(), response, new MockFilterChain(writing(100)));
+
+    assertTrue(response.isCommitted());
+  }
+
+  // writes and flushes the way message converters do
+  private static HttpServlet writing(int bytes) {
+    return new HttpServlet() {
+      @Override
+      protected void service(HttpServletRequest request, HttpServletResponse response)
+          throws IOException {
+        ServletOutputStream out = response.getOutputStream();
+        out.write(new byte[bytes]);
+        out.flush();
+        response.flushBuffer();
+      }
+    };
+  }
+}
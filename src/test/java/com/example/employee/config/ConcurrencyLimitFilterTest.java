@@ -0,0 +1,57 @@
+package com.example.employee.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+class ConcurrencyLimitFilterTest {
+
+  private final AdaptiveConcurrencyLimit reads =
+      new AdaptiveConcurrencyLimit("read", 1, 1, 1, () -> false, new SimpleMeterRegistry());
+  private final AdaptiveConcurrencyLimit writes =
+      new AdaptiveConcurrencyLimit("write", 1, 1, 1, () -> false, new SimpleMeterRegistry());
+  private final ConcurrencyLimitFilter filter =
+      new ConcurrencyLimitFilter(reads, writes, 2, new ObjectMapper());
+
+  @Test
+  void rejectsWithRetryAfterWhenTheLimitIsReached() throws Exception {
+    reads.tryAcquire();
+    MockHttpServletResponse response = new MockHttpServletResponse();
+
+    filter.doFilter(new MockHttpServletRequest("GET", "/api/employees"), response,
+        new MockFilterChain());
+
+    assertEquals(503, response.getStatus());
+    assertEquals("2", response.getHeader("Retry-After"));
+    assertTrue(response.getContentAsString().contains("Too many concurrent reads"));
+  }
+
+  @Test
+  void writesHaveTheirOwnLimit() throws Exception {
+    reads.tryAcquire();
+    MockHttpServletResponse response = new MockHttpServletResponse();
+
+    filter.doFilter(new MockHttpServletRequest("POST", "/api/employees"), response,
+        new MockFilterChain());
+
+    assertEquals(200, response.getStatus());
+    assertEquals(0, writes.getInFlight());
+  }
+
+  @Test
+  void importsAreNotLimited() throws Exception {
+    writes.tryAcquire();
+    MockHttpServletResponse response = new MockHttpServletResponse();
+
+    filter.doFilter(new MockHttpServletRequest("POST", "/api/employees/import"), response,
+        new MockFilterChain());
+
+    assertEquals(200, response.getStatus());
+  }
+}
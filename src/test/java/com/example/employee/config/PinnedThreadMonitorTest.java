@@ -0,0 +1,46 @@
+package com.example.employee.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+
+class PinnedThreadMonitorTest {
+
+  private static final String SITE = PinnedThreadMonitorTest.class.getName() + ".sleepHoldingMonitor";
+
+  private final Object lock = new Object();
+
+  @Test
+  void reportsBlockingInsideSynchronized() throws Exception {
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    PinnedThreadMonitor monitor = new PinnedThreadMonitor(meterRegistry, Duration.ofMillis(10));
+    monitor.start();
+    try {
+      Thread.ofVirtual().start(this::sleepHoldingMonitor).join();
+
+      long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+      while (!monitor.sites().containsKey(SITE) && System.nanoTime() < deadline) {
+        Thread.sleep(100);
+      }
+      assertTrue(monitor.sites().containsKey(SITE), () -> "Pinned sites: " + monitor.sites());
+      assertEquals(1, monitor.sites().get(SITE).count());
+      assertEquals(1, meterRegistry.get("employee.threads.virtual.pinned").tag("site", SITE)
+          .timer().count());
+    } finally {
+      monitor.stop();
+    }
+  }
+
+  private void sleepHoldingMonitor() {
+    synchronized (lock) {
+      try {
+        Thread.sleep(50);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+}
@@ -0,0 +1,96 @@
+package com.example.employee.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.sql.Connection;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+class ReplicaRoutingDataSourceTest {
+
+  private final Connection primaryConnection = mock(Connection.class);
+  private final Connection replicaConnection = mock(Connection.class);
+  private final JdbcTemplate replicaJdbc = mock(JdbcTemplate.class);
+  private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final ReplicaLagMonitor lagMonitor = new ReplicaLagMonitor(replicaJdbc, 1000);
+  private ReplicaRoutingDataSource routing;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    DataSource primary = mock(DataSource.class);
+    DataSource replica = mock(DataSource.class);
+    when(primary.getConnection()).thenReturn(primaryConnection);
+    when(replica.getConnection()).thenReturn(replicaConnection);
+    routing = new ReplicaRoutingDataSource(primary, replica, lagMonitor, meterRegistry);
+  }
+
+  @AfterEach
+  void tearDown() {
+    TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+  }
+
+  @Test
+  void readOnlyTransactionsUseCurrentReplica() throws Exception {
+    lagged(200L);
+    TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+    assertSame(replicaConnection, routing.getConnection());
+    assertEquals(1, count("replica"));
+  }
+
+  @Test
+  void writesUsePrimary() throws Exception {
+    lagged(0L);
+
+    assertSame(primaryConnection, routing.getConnection());
+    assertEquals(1, count("primary"));
+  }
+
+  @Test
+  void readsFallBackToPrimaryWhenReplicaLags() throws Exception {
+    lagged(5000L);
+    TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+    assertSame(primaryConnection, routing.getConnection());
+    assertEquals(1, meterRegistry.get("employee.datasource.replica.fallbacks").counter().count());
+  }
+
+  @Test
+  void readsFallBackToPrimaryBeforeLagIsKnown() throws Exception {
+    TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+    assertSame(primaryConnection, routing.getConnection());
+  }
+
+  @Test
+  void failedLagCheckFallsBackToPrimary() throws Exception {
+    lagged(0L);
+    when(replicaJdbc.queryForObject(anyString(), eq(Long.class)))
+        .thenThrow(new DataAccessResourceFailureException("replica down"));
+    lagMonitor.check();
+    TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+    assertSame(primaryConnection, routing.getConnection());
+  }
+
+  private void lagged(Long lagMillis) {
+    when(replicaJdbc.queryForObject(anyString(), eq(Long.class))).thenReturn(lagMillis);
+    lagMonitor.check();
+  }
+
+  private double count(String pool) {
+    return meterRegistry.get("employee.datasource.connections").tag("pool", pool).counter().count();
+  }
+}
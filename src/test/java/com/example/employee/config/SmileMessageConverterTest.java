@@ -0,0 +1,80 @@
+package com.example.employee.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.employee.model.EmployeeEvent;
+import com.example.employee.model.EventTypes;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.ContentTypeDelegatingMessageConverter;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+
+class SmileMessageConverterTest {
+
+  private final EmployeeEvent event = event();
+
+  @Test
+  void encodesSameDocumentAsJson() throws Exception {
+    Message json = new Jackson2JsonMessageConverter().toMessage(event, new MessageProperties());
+    Message smile = new SmileMessageConverter().toMessage(event, new MessageProperties());
+
+    assertEquals(SmileMessageConverter.CONTENT_TYPE, smile.getMessageProperties().getContentType());
+    // uuids are binary in Smile, so the documents are compared as JSON consumers see them
+    assertEquals(new ObjectMapper().readTree(json.getBody()), tree(
+        new ObjectMapper(new SmileFactory()).readValue(smile.getBody(), EmployeeEvent.class)));
+    assertTrue(smile.getBody().length < json.getBody().length,
+        smile.getBody().length + " >= " + json.getBody().length);
+  }
+
+  @Test
+  void configuredConverterReadsBothFormats() {
+    ContentTypeDelegatingMessageConverter converter =
+        new RabbitMQConfig(null).converter(SmileMessageConverter.CONTENT_TYPE);
+
+    Message smile = converter.toMessage(event, new MessageProperties());
+    Message json = new Jackson2JsonMessageConverter().toMessage(event, new MessageProperties());
+
+    assertEquals(SmileMessageConverter.CONTENT_TYPE, smile.getMessageProperties().getContentType());
+    assertEquals(tree(event), tree(converter.fromMessage(smile)));
+    assertEquals(tree(event), tree(converter.fromMessage(json)));
+  }
+
+  @Test
+  void jsonStaysTheDefault() {
+    Message message = new RabbitMQConfig(null).converter(MessageProperties.CONTENT_TYPE_JSON)
+        .toMessage(event, new MessageProperties());
+
+    assertEquals(MessageProperties.CONTENT_TYPE_JSON, message.getMessageProperties().getContentType());
+  }
+
+  @Test
+  void rejectsUnknownContentType() {
+    assertThrows(IllegalArgumentException.class,
+        () -> new RabbitMQConfig(null).converter("application/cbor"));
+  }
+
+  private static JsonNode tree(Object event) {
+    return new ObjectMapper().valueToTree(event);
+  }
+
+  private static EmployeeEvent event() {
+    EmployeeEvent event = new EmployeeEvent();
+    event.setEventId(UUID.randomUUID());
+    event.setEventType(EventTypes.UPDATED);
+    event.setUuid(UUID.randomUUID());
+    event.setEmail("john.doe@example.com");
+    event.setFullName("John Doe");
+    event.setBirthday("1990-01-31");
+    event.setHobbies(List.of("chess", "hiking"));
+    event.setChangedFields(List.of("fullName", "hobbies"));
+    return event;
+  }
+}
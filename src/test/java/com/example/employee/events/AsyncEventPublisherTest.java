@@ -0,0 +1,231 @@
+package com.example.employee.events;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+import com.example.employee.config.RabbitMQConfig;
+import com.example.employee.model.EmployeeEvent;
+import com.example.employee.model.EventTypes;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.net.ConnectException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.amqp.AmqpConnectException;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+
+class AsyncEventPublisherTest {
+
+  @TempDir
+  Path tempDir;
+
+  final ObjectMapper objectMapper = new ObjectMapper();
+  final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  final List<Sent> sent = Collections.synchronizedList(new ArrayList<>());
+  final AtomicInteger nacksLeft = new AtomicInteger();
+  volatile boolean brokerUp = true;
+  volatile boolean autoConfirm = true;
+  RabbitTemplate rabbitTemplate;
+  AsyncEventPublisher publisher;
+
+  @BeforeEach
+  void setUp() {
+    rabbitTemplate = mock(RabbitTemplate.class);
+    doAnswer(invocation -> {
+      if (!brokerUp) {
+        throw new AmqpConnectException(new ConnectException("Connection refused"));
+      }
+      Sent send = new Sent(invocation.getArgument(2), invocation.getArgument(3));
+      sent.add(send);
+      if (autoConfirm) {
+        send.confirm(nacksLeft.getAndDecrement() <= 0);
+      }
+      return null;
+    }).when(rabbitTemplate).convertAndSend(eq(""), eq(RabbitMQConfig.EMPLOYEE_UPDATES_QUEUE),
+        any(EmployeeEvent.class), any(CorrelationData.class));
+    doAnswer(invocation -> {
+      if (!brokerUp) {
+        throw new AmqpConnectException(new ConnectException("Connection refused"));
+      }
+      return true;
+    }).when(rabbitTemplate).execute(any());
+  }
+
+  @AfterEach
+  void tearDown() {
+    if (publisher != null) {
+      if (publisher.isRunning()) {
+        publisher.stop();
+      }
+      publisher.closeSpool();
+    }
+  }
+
+  @Test
+  void pipelinesUpToMaxInFlight() throws Exception {
+    autoConfirm = false;
+    start(10, 2);
+
+    for (int i = 0; i < 5; i++) {
+      publisher.publish(event());
+    }
+
+    await(() -> sent.size() == 2);
+    TimeUnit.MILLISECONDS.sleep(200);
+    assertEquals(2, sent.size());
+    sent.get(0).confirm(true);
+    await(() -> sent.size() == 3);
+  }
+
+  @Test
+  void nackedEventIsSentAgain() throws Exception {
+    nacksLeft.set(1);
+    start(10, 2);
+    EmployeeEvent event = event();
+
+    publisher.publish(event);
+
+    await(() -> counter("employee.events.async.confirmed") == 1);
+    assertEquals(List.of(event.getEventId(), event.getEventId()), sentIds());
+    assertEquals(1, counter("employee.events.async.nacked"));
+  }
+
+  @Test
+  void brokerOutageSpoolsAndReplaysInOrder() throws Exception {
+    brokerUp = false;
+    start(10, 2);
+    List<UUID> published = new ArrayList<>();
+
+    for (int i = 0; i < 5; i++) {
+      EmployeeEvent event = event();
+      published.add(event.getEventId());
+      publisher.publish(event);
+    }
+
+    await(() -> counter("employee.events.async.spooled") == 4);
+    assertTrue(gauge("employee.events.async.spool") > 0);
+    brokerUp = true;
+    await(() -> counter("employee.events.async.confirmed") == 5);
+    assertEquals(published, sentIds());
+    assertEquals(0, gauge("employee.events.async.spool"));
+  }
+
+  @Test
+  void fullQueueOverflowsIntoSpool() throws Exception {
+    autoConfirm = false;
+    start(1, 1);
+
+    for (int i = 0; i < 5; i++) {
+      publisher.publish(event());
+    }
+
+    // one in flight, at most one queued, the rest behind them in the spool
+    await(() -> sent.size() == 1);
+    assertTrue(counter("employee.events.async.spooled") >= 3);
+    autoConfirm = true;
+    sent.get(0).confirm(true);
+    await(() -> counter("employee.events.async.confirmed") == 5);
+  }
+
+  @Test
+  void shutdownKeepsUnsentAndLateEventsInSpool() throws Exception {
+    brokerUp = false;
+    start(10, 2);
+    List<UUID> published = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      EmployeeEvent event = event();
+      published.add(event.getEventId());
+      publisher.publish(event);
+    }
+    await(() -> counter("employee.events.async.spooled") == 2);
+
+    publisher.stop();
+    // committed by a request finishing after the publisher stopped
+    EmployeeEvent late = event();
+    published.add(late.getEventId());
+    publisher.publish(late);
+    publisher.closeSpool();
+    publisher = null;
+
+    List<UUID> spooled = new ArrayList<>();
+    try (EventSpool spool = new EventSpool(tempDir.resolve("events.spool"), 1024 * 1024)) {
+      EventSpool.Entry entry;
+      while ((entry = spool.next()) != null) {
+        spooled.add(objectMapper.readValue(entry.record(), EmployeeEvent.class).getEventId());
+      }
+    }
+    assertEquals(new HashSet<>(published), new HashSet<>(spooled));
+    assertEquals(published.size(), spooled.size());
+  }
+
+  @Test
+  void rejectsSpoolCapacityBeyondMappableSize() {
+    assertThrows(IllegalArgumentException.class, () -> publisher(10, 2, 2048));
+    assertThrows(IllegalArgumentException.class, () -> publisher(10, 2, 0));
+  }
+
+  private void start(int queueCapacity, int maxInFlight) throws Exception {
+    publisher = publisher(queueCapacity, maxInFlight, 1);
+    publisher.start();
+  }
+
+  private AsyncEventPublisher publisher(int queueCapacity, int maxInFlight, long spoolCapacityMb)
+      throws Exception {
+    return new AsyncEventPublisher(rabbitTemplate, objectMapper, meterRegistry, queueCapacity,
+        maxInFlight, 20, tempDir.resolve("events.spool"), spoolCapacityMb);
+  }
+
+  private List<UUID> sentIds() {
+    synchronized (sent) {
+      return sent.stream().map(send -> send.event().getEventId()).toList();
+    }
+  }
+
+  private double counter(String name) {
+    return meterRegistry.get(name).counter().count();
+  }
+
+  private double gauge(String name) {
+    return meterRegistry.get(name).gauge().value();
+  }
+
+  private static EmployeeEvent event() {
+    EmployeeEvent event = new EmployeeEvent();
+    event.setEventId(UUID.randomUUID());
+    event.setEventType(EventTypes.UPDATED);
+    event.setUuid(UUID.randomUUID());
+    return event;
+  }
+
+  private static void await(BooleanSupplier condition) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (!condition.getAsBoolean()) {
+      assertTrue(System.nanoTime() < deadline, "Timed out waiting");
+      TimeUnit.MILLISECONDS.sleep(10);
+    }
+  }
+
+  private record Sent(EmployeeEvent event, CorrelationData correlationData) {
+
+    void confirm(boolean ack) {
+      correlationData.getFuture().complete(new CorrelationData.Confirm(ack, ack ? null : "nack"));
+    }
+  }
+}
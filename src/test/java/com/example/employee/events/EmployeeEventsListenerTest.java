@@ -0,0 +1,112 @@
+package com.example.employee.events;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.employee.config.CacheConfig;
+import com.example.employee.config.SmileMessageConverter;
+import com.example.employee.model.EmployeeEvent;
+import com.example.employee.model.EventTypes;
+import com.example.employee.service.EmployeeService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+
+class EmployeeEventsListenerTest {
+
+  private EmployeeService employeeService;
+  private CaffeineCacheManager cacheManager;
+  private EmployeeEventsListener listener;
+
+  @BeforeEach
+  void setUp() {
+    employeeService = mock(EmployeeService.class);
+    cacheManager = new CaffeineCacheManager(CacheConfig.EMPLOYEES);
+    listener = new EmployeeEventsListener(employeeService, new ObjectMapper(), cacheManager, 100);
+    when(employeeService.deleteAll(anyCollection()))
+        .thenAnswer(invocation -> List.copyOf(invocation.<Set<UUID>>getArgument(0)));
+  }
+
+  @Test
+  void deletesBatchWithSingleCall() {
+    UUID first = UUID.randomUUID();
+    UUID second = UUID.randomUUID();
+    cacheManager.getCache(CacheConfig.EMPLOYEES).put(first, "cached");
+
+    listener.onEvents(List.of(
+        message(UUID.randomUUID(), first, "DELETED"),
+        message(UUID.randomUUID(), second, null),
+        message(UUID.randomUUID(), UUID.randomUUID(), "CREATED"),
+        new Message("not json".getBytes(StandardCharsets.UTF_8), new MessageProperties())));
+
+    verify(employeeService).deleteAll(Set.of(first, second));
+    assertNull(cacheManager.getCache(CacheConfig.EMPLOYEES).get(first));
+  }
+
+  @Test
+  void skipsRedeliveredEvents() {
+    UUID eventId = UUID.randomUUID();
+    UUID uuid = UUID.randomUUID();
+
+    listener.onEvents(List.of(message(eventId, uuid, "DELETED"), message(eventId, uuid, "DELETED")));
+    listener.onEvents(List.of(message(eventId, uuid, "DELETED")));
+
+    verify(employeeService, times(1)).deleteAll(anyCollection());
+  }
+
+  @Test
+  void retriesEventsWhenDeleteFails() {
+    UUID eventId = UUID.randomUUID();
+    when(employeeService.deleteAll(anyCollection()))
+        .thenThrow(new IllegalStateException("db down"))
+        .thenReturn(List.of());
+
+    try {
+      listener.onEvents(List.of(message(eventId, UUID.randomUUID(), "DELETED")));
+    } catch (IllegalStateException expected) {
+      // the container rejects the batch and it is delivered again
+    }
+    listener.onEvents(List.of(message(eventId, UUID.randomUUID(), "DELETED")));
+
+    verify(employeeService, times(2)).deleteAll(anyCollection());
+  }
+
+  @Test
+  void decodesSmileMessages() {
+    UUID uuid = UUID.randomUUID();
+    EmployeeEvent event = new EmployeeEvent();
+    event.setEventId(UUID.randomUUID());
+    event.setUuid(uuid);
+    event.setEventType(EventTypes.DELETED);
+
+    listener.onEvents(List.of(new SmileMessageConverter().toMessage(event, new MessageProperties())));
+
+    verify(employeeService).deleteAll(Set.of(uuid));
+  }
+
+  @Test
+  void ignoresBatchWithoutDeletes() {
+    listener.onEvents(List.of(message(UUID.randomUUID(), UUID.randomUUID(), "UPDATED")));
+
+    verify(employeeService, never()).deleteAll(anyCollection());
+  }
+
+  private static Message message(UUID eventId, UUID uuid, String eventType) {
+    String body = """
+        {"eventId":"%s","uuid":"%s","eventType":%s}"""
+        .formatted(eventId, uuid, eventType == null ? "null" : "\"" + eventType + "\"");
+    return new Message(body.getBytes(StandardCharsets.UTF_8), new MessageProperties());
+  }
+}
@@ -0,0 +1,109 @@
+package com.example.employee.events;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import com.example.employee.model.EmployeeEvent;
+import com.example.employee.model.EventTypes;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+class EventCoalescerTest {
+
+  private final UUID first = UUID.randomUUID();
+  private final UUID second = UUID.randomUUID();
+
+  @Test
+  void keepsLatestStateOfUpdates() {
+    EmployeeEvent latest = event(first, EventTypes.UPDATED, "Third Name");
+
+    List<EmployeeEvent> events = EventCoalescer.coalesce(List.of(
+        event(first, EventTypes.UPDATED, "First Name"),
+        event(first, EventTypes.UPDATED, "Second Name"),
+        latest));
+
+    assertEquals(1, events.size());
+    assertEquals(EventTypes.UPDATED, events.get(0).getEventType());
+    assertEquals(latest.getEventId(), events.get(0).getEventId());
+    assertEquals("Third Name", events.get(0).getFullName());
+    assertEquals(latest.getEmail(), events.get(0).getEmail());
+  }
+
+  @Test
+  void createdThenUpdatedIsCreatedWithLatestState() {
+    EmployeeEvent patch = new EmployeeEvent();
+    patch.setEventId(UUID.randomUUID());
+    patch.setEventType(EventTypes.UPDATED);
+    patch.setUuid(first);
+    patch.setHobbies(List.of("chess"));
+    patch.setChangedFields(List.of("hobbies"));
+
+    List<EmployeeEvent> events = EventCoalescer.coalesce(List.of(
+        event(first, EventTypes.CREATED, "John Doe"), patch));
+
+    assertEquals(1, events.size());
+    assertEquals(EventTypes.CREATED, events.get(0).getEventType());
+    assertEquals("John Doe", events.get(0).getFullName());
+    assertEquals(List.of("chess"), events.get(0).getHobbies());
+    assertNull(events.get(0).getChangedFields());
+  }
+
+  @Test
+  void patchesMergeTheirChangedFields() {
+    EmployeeEvent names = new EmployeeEvent();
+    names.setEventType(EventTypes.UPDATED);
+    names.setUuid(first);
+    names.setFullName("John Doe");
+    names.setChangedFields(List.of("fullName"));
+    EmployeeEvent hobbies = new EmployeeEvent();
+    hobbies.setEventType(EventTypes.UPDATED);
+    hobbies.setUuid(first);
+    hobbies.setHobbies(null);
+    hobbies.setChangedFields(List.of("hobbies", "fullName"));
+
+    List<EmployeeEvent> events = EventCoalescer.coalesce(List.of(names, hobbies));
+
+    assertEquals(1, events.size());
+    assertEquals(List.of("fullName", "hobbies"), events.get(0).getChangedFields());
+    assertNull(events.get(0).getFullName());
+    assertNull(events.get(0).getEmail());
+  }
+
+  @Test
+  void createdThenDeletedCancelOut() {
+    EmployeeEvent other = event(second, EventTypes.UPDATED, "Jane Doe");
+
+    List<EmployeeEvent> events = EventCoalescer.coalesce(List.of(
+        event(first, EventTypes.CREATED, "John Doe"),
+        other,
+        event(first, EventTypes.UPDATED, "John Smith"),
+        event(first, EventTypes.DELETED, "John Smith")));
+
+    assertEquals(List.of(other), events);
+  }
+
+  @Test
+  void deleteReplacesUpdatesAndKeepsOrderPerEmployee() {
+    EmployeeEvent created = event(second, EventTypes.CREATED, "Jane Doe");
+    EmployeeEvent deleted = event(first, EventTypes.DELETED, "John Doe");
+    EmployeeEvent recreated = event(first, EventTypes.CREATED, "John Doe");
+
+    List<EmployeeEvent> events = EventCoalescer.coalesce(List.of(
+        event(first, EventTypes.UPDATED, "John Smith"), created, deleted, recreated));
+
+    assertEquals(List.of(deleted, recreated, created), events);
+  }
+
+  private static EmployeeEvent event(UUID uuid, EventTypes eventType, String fullName) {
+    EmployeeEvent event = new EmployeeEvent();
+    event.setEventId(UUID.randomUUID());
+    event.setEventType(eventType);
+    event.setUuid(uuid);
+    event.setEmail("john.doe@example.com");
+    event.setFullName(fullName);
+    event.setBirthday("1990-01-31");
+    event.setHobbies(List.of("hiking"));
+    return event;
+  }
+}
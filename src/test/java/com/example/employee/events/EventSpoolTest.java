@@ -0,0 +1,129 @@
+package com.example.employee.events;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class EventSpoolTest {
+
+  @TempDir
+  Path tempDir;
+
+  @Test
+  void recordsComeBackInAppendOrder() throws Exception {
+    try (EventSpool spool = new EventSpool(tempDir.resolve("events.spool"), 1024)) {
+      assertTrue(spool.isEmpty());
+      spool.append(bytes("first"));
+      spool.append(bytes("second"));
+
+      assertArrayEquals(bytes("first"), poll(spool));
+      assertArrayEquals(bytes("second"), poll(spool));
+      assertNull(poll(spool));
+      assertTrue(spool.isEmpty());
+    }
+  }
+
+  @Test
+  void unreadRecordsSurviveReopen() throws Exception {
+    Path file = tempDir.resolve("events.spool");
+    try (EventSpool spool = new EventSpool(file, 1024)) {
+      spool.append(bytes("first"));
+      spool.append(bytes("second"));
+      poll(spool);
+    }
+    try (EventSpool spool = new EventSpool(file, 1024)) {
+      assertArrayEquals(bytes("second"), poll(spool));
+      assertTrue(spool.isEmpty());
+    }
+  }
+
+  @Test
+  void fullSpoolRejectsAndCompactsAfterReads() throws Exception {
+    // 16 byte header + two 4 + 20 byte records
+    try (EventSpool spool = new EventSpool(tempDir.resolve("events.spool"), 64)) {
+      byte[] record = new byte[20];
+      assertTrue(spool.append(record));
+      assertTrue(spool.append(record));
+      assertFalse(spool.append(record));
+
+      poll(spool);
+      assertTrue(spool.append(bytes("after compaction")));
+      assertEquals(24 + 4 + 16, spool.usedBytes());
+      assertArrayEquals(record, poll(spool));
+      assertArrayEquals(bytes("after compaction"), poll(spool));
+    }
+  }
+
+  @Test
+  void unacknowledgedRecordsAreHandedOutAgainAfterReopen() throws Exception {
+    Path file = tempDir.resolve("events.spool");
+    try (EventSpool spool = new EventSpool(file, 1024)) {
+      spool.append(bytes("first"));
+      spool.append(bytes("second"));
+      spool.next();
+      spool.acknowledge(spool.next());
+
+      assertNull(spool.next());
+      assertFalse(spool.isEmpty());
+    }
+    try (EventSpool spool = new EventSpool(file, 1024)) {
+      assertArrayEquals(bytes("first"), poll(spool));
+      assertArrayEquals(bytes("second"), poll(spool));
+      assertTrue(spool.isEmpty());
+    }
+  }
+
+  @Test
+  void readPositionMovesOverAcknowledgedPrefixOnly() throws Exception {
+    try (EventSpool spool = new EventSpool(tempDir.resolve("events.spool"), 1024)) {
+      spool.append(bytes("first"));
+      spool.append(bytes("second"));
+      spool.append(bytes("third"));
+      EventSpool.Entry first = spool.next();
+      EventSpool.Entry second = spool.next();
+      spool.next();
+
+      spool.acknowledge(second);
+      assertEquals(3 * Integer.BYTES + 5 + 6 + 5, spool.usedBytes());
+      spool.acknowledge(first);
+      assertEquals(Integer.BYTES + 5, spool.usedBytes());
+    }
+  }
+
+  @Test
+  void compactionKeepsRecordsHandedOut() throws Exception {
+    // 16 byte header + two 4 + 20 byte records
+    try (EventSpool spool = new EventSpool(tempDir.resolve("events.spool"), 64)) {
+      spool.append(new byte[20]);
+      spool.append(bytes("second record.......")); // 20 bytes
+      spool.acknowledge(spool.next());
+      EventSpool.Entry second = spool.next();
+
+      assertTrue(spool.append(bytes("third")));
+      spool.acknowledge(second);
+      assertArrayEquals(bytes("third"), poll(spool));
+      assertTrue(spool.isEmpty());
+    }
+  }
+
+  /** Takes the next record and acknowledges it at once. */
+  private static byte[] poll(EventSpool spool) {
+    EventSpool.Entry entry = spool.next();
+    if (entry == null) {
+      return null;
+    }
+    spool.acknowledge(entry);
+    return entry.record();
+  }
+
+  private static byte[] bytes(String value) {
+    return value.getBytes(StandardCharsets.UTF_8);
+  }
+}
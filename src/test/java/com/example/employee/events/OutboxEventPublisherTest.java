@@ -0,0 +1,107 @@
+package com.example.employee.events;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.example.employee.model.EmployeeEvent;
+import com.example.employee.model.EventTypes;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.transaction.IllegalTransactionStateException;
+import org.springframework.transaction.annotation.AnnotationTransactionAttributeSource;
+import org.springframework.transaction.interceptor.TransactionInterceptor;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+/**
+ * Checks that events are written in, and only in, the caller's transaction.
+ */
+class OutboxEventPublisherTest {
+
+  static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+  static DriverManagerDataSource dataSource;
+
+  JdbcTemplate jdbcTemplate;
+  TransactionTemplate transactionTemplate;
+  EmployeeEventPublisher publisher;
+
+  @BeforeAll
+  static void beforeAll() {
+    postgres.start();
+    dataSource = new DriverManagerDataSource(postgres.getJdbcUrl(), postgres.getUsername(),
+        postgres.getPassword());
+    new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(dataSource);
+  }
+
+  @AfterAll
+  static void afterAll() {
+    postgres.stop();
+  }
+
+  @BeforeEach
+  void setUp() {
+    jdbcTemplate = new JdbcTemplate(dataSource);
+    jdbcTemplate.update("DELETE FROM employee_outbox");
+    DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+    transactionTemplate = new TransactionTemplate(transactionManager);
+    // applies @Transactional the way the application context does
+    ProxyFactory proxyFactory = new ProxyFactory(
+        new OutboxEventPublisher(jdbcTemplate, new ObjectMapper()));
+    proxyFactory.addAdvice(new TransactionInterceptor(transactionManager,
+        new AnnotationTransactionAttributeSource()));
+    publisher = (EmployeeEventPublisher) proxyFactory.getProxy();
+  }
+
+  @Test
+  void publishJoinsCallerTransaction() {
+    EmployeeEvent event = event(EventTypes.CREATED);
+
+    transactionTemplate.executeWithoutResult(status -> publisher.publish(event));
+
+    assertEquals(List.of(event.getEventId()),
+        jdbcTemplate.queryForList("SELECT event_id FROM employee_outbox", UUID.class));
+    assertEquals("CREATED", jdbcTemplate.queryForObject(
+        "SELECT event_type FROM employee_outbox", String.class));
+  }
+
+  @Test
+  void rollbackLeavesNoEvent() {
+    transactionTemplate.executeWithoutResult(status -> {
+      publisher.publishAll(List.of(event(EventTypes.CREATED), event(EventTypes.DELETED)));
+      status.setRollbackOnly();
+    });
+
+    assertEquals(0, jdbcTemplate.queryForObject("SELECT count(*) FROM employee_outbox",
+        Integer.class));
+  }
+
+  @Test
+  void publishOutsideTransactionIsRejected() {
+    EmployeeEvent event = event(EventTypes.CREATED);
+
+    assertThrows(IllegalTransactionStateException.class, () -> publisher.publish(event));
+    assertEquals(0, jdbcTemplate.queryForObject("SELECT count(*) FROM employee_outbox",
+        Integer.class));
+  }
+
+  private static EmployeeEvent event(EventTypes eventType) {
+    EmployeeEvent event = new EmployeeEvent();
+    event.setEventId(UUID.randomUUID());
+    event.setEventType(eventType);
+    event.setUuid(UUID.randomUUID());
+    event.setEmail("john@doe");
+    return event;
+  }
+}
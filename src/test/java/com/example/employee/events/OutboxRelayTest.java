@@ -0,0 +1,208 @@
+package com.example.employee.events;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.reset;
+
+import com.example.employee.config.RabbitMQConfig;
+import com.example.employee.model.EmployeeEvent;
+import com.example.employee.model.EventTypes;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.net.ConnectException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.AmqpConnectException;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+/**
+ * Relays {@code employee_outbox} rows to a mocked broker.
+ */
+class OutboxRelayTest {
+
+  static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+  static DriverManagerDataSource dataSource;
+
+  final ObjectMapper objectMapper = new ObjectMapper();
+  final List<UUID> sent = Collections.synchronizedList(new ArrayList<>());
+  JdbcTemplate jdbcTemplate;
+  RabbitTemplate rabbitTemplate;
+
+  @BeforeAll
+  static void beforeAll() {
+    postgres.start();
+    dataSource = new DriverManagerDataSource(postgres.getJdbcUrl(), postgres.getUsername(),
+        postgres.getPassword());
+    new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(dataSource);
+  }
+
+  @AfterAll
+  static void afterAll() {
+    postgres.stop();
+  }
+
+  @BeforeEach
+  void setUp() {
+    jdbcTemplate = new JdbcTemplate(dataSource);
+    jdbcTemplate.update("DELETE FROM employee_outbox");
+    rabbitTemplate = mock(RabbitTemplate.class);
+    recordSends();
+  }
+
+  @Test
+  void relaysBatchAndDeletesIt() {
+    List<UUID> eventIds = List.of(insert(UUID.randomUUID()), insert(UUID.randomUUID()),
+        insert(UUID.randomUUID()));
+
+    relay(100).relay();
+
+    assertEquals(eventIds, sent);
+    assertEquals(0, outboxRows());
+  }
+
+  @Test
+  void concurrentRelaysNeverSendTheSameRow() throws Exception {
+    List<UUID> eventIds = new ArrayList<>();
+    for (int i = 0; i < 200; i++) {
+      eventIds.add(insert(UUID.randomUUID()));
+    }
+    List<OutboxRelay> relays = List.of(relay(10), relay(10));
+
+    ExecutorService executor = Executors.newFixedThreadPool(relays.size());
+    try {
+      List<Future<?>> running = new ArrayList<>();
+      for (OutboxRelay relay : relays) {
+        running.add(executor.submit(() -> {
+          while (outboxRows() > 0) {
+            relay.relay();
+          }
+        }));
+      }
+      for (Future<?> future : running) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+
+    assertEquals(eventIds.size(), sent.size());
+    assertEquals(new HashSet<>(eventIds), new HashSet<>(sent));
+  }
+
+  @Test
+  void employeeEventsAreNotOvertakenByAnotherRelay() throws Exception {
+    UUID employee = UUID.randomUUID();
+    UUID first = insert(employee);
+    CountDownLatch sending = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    doAnswer(invocation -> {
+      UUID eventId = invocation.<EmployeeEvent>getArgument(1).getEventId();
+      if (eventId.equals(first)) {
+        sending.countDown();
+        release.await();
+      }
+      return sent.add(eventId);
+    }).when(rabbitTemplate)
+        .convertAndSend(eq(RabbitMQConfig.EMPLOYEE_UPDATES_QUEUE), any(EmployeeEvent.class));
+
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      // the first relay holds the employee's first event while sending it
+      Future<?> blocked = executor.submit(() -> relay(100).relay());
+      assertTrue(sending.await(5, TimeUnit.SECONDS));
+      UUID second = insert(employee);
+      UUID other = insert(UUID.randomUUID());
+
+      relay(100).relay();
+
+      assertEquals(List.of(other), sent);
+      release.countDown();
+      blocked.get();
+      relay(100).relay();
+      assertEquals(List.of(other, first, second), sent);
+    } finally {
+      release.countDown();
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  void failedSendRollsBackAndIsRetried() {
+    UUID eventId = insert(UUID.randomUUID());
+    OutboxRelay relay = relay(100);
+    doThrow(new AmqpConnectException(new ConnectException("Connection refused")))
+        .when(rabbitTemplate)
+        .convertAndSend(eq(RabbitMQConfig.EMPLOYEE_UPDATES_QUEUE), any(EmployeeEvent.class));
+
+    relay.relay();
+
+    assertEquals(1, outboxRows());
+    reset(rabbitTemplate);
+    recordSends();
+
+    relay.relay();
+
+    assertEquals(List.of(eventId), sent);
+    assertEquals(0, outboxRows());
+  }
+
+  @Test
+  void poisonRowIsDropped() {
+    jdbcTemplate.update("INSERT INTO employee_outbox (event_id, employee_uuid, event_type, payload) "
+        + "VALUES (?, ?, 'CREATED', 'not json')", UUID.randomUUID(), UUID.randomUUID());
+    UUID eventId = insert(UUID.randomUUID());
+
+    relay(100).relay();
+
+    assertEquals(List.of(eventId), sent);
+    assertEquals(0, outboxRows());
+  }
+
+  private OutboxRelay relay(int batchSize) {
+    return new OutboxRelay(jdbcTemplate, new DataSourceTransactionManager(dataSource),
+        rabbitTemplate, objectMapper, new SimpleMeterRegistry(), batchSize, 0, 5000);
+  }
+
+  private void recordSends() {
+    doAnswer(invocation -> sent.add(invocation.<EmployeeEvent>getArgument(1).getEventId()))
+        .when(rabbitTemplate)
+        .convertAndSend(eq(RabbitMQConfig.EMPLOYEE_UPDATES_QUEUE), any(EmployeeEvent.class));
+  }
+
+  private UUID insert(UUID uuid) {
+    EmployeeEvent event = new EmployeeEvent();
+    event.setEventId(UUID.randomUUID());
+    event.setEventType(EventTypes.UPDATED);
+    event.setUuid(uuid);
+    new OutboxEventPublisher(jdbcTemplate, objectMapper).publish(event);
+    return event.getEventId();
+  }
+
+  private int outboxRows() {
+    return jdbcTemplate.queryForObject("SELECT count(*) FROM employee_outbox", Integer.class);
+  }
+}
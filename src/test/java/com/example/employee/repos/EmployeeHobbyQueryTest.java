@@ -0,0 +1,142 @@
+package com.example.employee.repos;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Array;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+/**
+ * Runs the hobby queries of {@link EmployeeRepository} as declared: the migration of the old
+ * {@code ';'} joined column in schema.sql, the {@code pg_stats} lookup deciding whether a hobby is
+ * common, and the plans of the rare and common hobby pages.
+ */
+class EmployeeHobbyQueryTest {
+
+  /** Cursor below every uuid, so the second page is as large as the first. */
+  static final UUID FIRST = new UUID(0, 0);
+
+  static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+  static SingleConnectionDataSource dataSource;
+  static JdbcTemplate jdbc;
+  static NamedParameterJdbcTemplate jdbcTemplate;
+
+  @BeforeAll
+  static void beforeAll() {
+    postgres.start();
+    dataSource = new SingleConnectionDataSource(postgres.getJdbcUrl(), postgres.getUsername(),
+        postgres.getPassword(), true);
+    jdbc = new JdbcTemplate(dataSource);
+    // the table as Hibernate created it before hobbies became an array
+    jdbc.execute("""
+        CREATE TABLE public.employee (
+            uuid uuid NOT NULL,
+            birthday date NULL,
+            date_created timestamptz(6) NOT NULL,
+            email varchar(255) NULL,
+            full_name varchar(255) NULL,
+            hobbies varchar(255) NULL,
+            last_updated timestamptz(6) NOT NULL,
+            CONSTRAINT employee_pkey PRIMARY KEY (uuid),
+            CONSTRAINT uk_fopic1oh5oln2khj8eat6ino0 UNIQUE (email))""");
+    jdbc.update("""
+        INSERT INTO employee (uuid, birthday, date_created, email, full_name, hobbies, last_updated)
+        VALUES (gen_random_uuid(), date '1990-01-01', now(), 'legacy1@doe.com', 'Old One',
+                'chess;go', now()),
+               (gen_random_uuid(), date '1990-01-01', now(), 'legacy2@doe.com', 'Old Two',
+                NULL, now())""");
+    new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(dataSource);
+    // every employee has one of five common hobbies and one of its own
+    jdbc.update("""
+        INSERT INTO employee (uuid, birthday, date_created, email, full_name, hobbies, last_updated)
+        SELECT gen_random_uuid(), date '1950-01-01' + i % 20000, now(), 'user' || i || '@doe.com',
+               'Name' || i || ' Surname', ARRAY['hobby' || i % 5, 'solo' || i], now()
+        FROM generate_series(1, 20000) i""");
+    jdbc.execute("ANALYZE employee");
+    // small enough for a sequential scan to beat both plans; what matters is which index serves
+    // a rare hobby and which one a common hobby
+    jdbc.execute("SET enable_seqscan = off");
+    jdbcTemplate = new NamedParameterJdbcTemplate(jdbc);
+  }
+
+  @AfterAll
+  static void afterAll() {
+    dataSource.destroy();
+    postgres.stop();
+  }
+
+  @Test
+  void joinedHobbiesAreMigratedToArrays() throws Exception {
+    assertEquals("ARRAY", jdbc.queryForObject("""
+        SELECT data_type FROM information_schema.columns
+        WHERE table_name = 'employee' AND column_name = 'hobbies'""", String.class));
+    Array hobbies = jdbc.queryForObject(
+        "SELECT hobbies FROM employee WHERE email = 'legacy1@doe.com'", Array.class);
+    assertEquals(List.of("chess", "go"), List.of((String[]) hobbies.getArray()));
+    assertNull(jdbc.queryForObject(
+        "SELECT hobbies FROM employee WHERE email = 'legacy2@doe.com'", Array.class));
+    assertEquals(1, jdbc.queryForObject(
+        "SELECT count(*) FROM pg_indexes WHERE indexname = 'employee_hobbies_idx'", Integer.class));
+  }
+
+  @Test
+  void commonHobbyIsReadFromStatistics() throws Exception {
+    String sql = query("isCommonHobby", String.class);
+
+    assertTrue(jdbcTemplate.queryForObject(sql, Map.of("hobby", "hobby3"), Boolean.class));
+    assertFalse(jdbcTemplate.queryForObject(sql, Map.of("hobby", "solo42"), Boolean.class));
+    assertFalse(jdbcTemplate.queryForObject(sql, Map.of("hobby", "unknown"), Boolean.class));
+  }
+
+  @Test
+  void rareHobbyUsesHobbiesIndex() throws Exception {
+    String first = explain(query("findByHobbyOrderByUuid", String.class, Pageable.class),
+        Map.of("hobby", "solo42"));
+    String next = explain(query("findByHobbyAndUuidGreaterThanOrderByUuid", String.class,
+        UUID.class, Pageable.class), Map.of("hobby", "solo42", "uuid", FIRST));
+
+    assertTrue(first.contains("employee_hobbies_idx"), () -> "Expected hobbies index in\n" + first);
+    assertTrue(next.contains("employee_hobbies_idx"), () -> "Expected hobbies index in\n" + next);
+  }
+
+  @Test
+  void commonHobbyWalksPrimaryKey() throws Exception {
+    String first = explain(query("findByCommonHobbyOrderByUuid", String.class, Pageable.class),
+        Map.of("hobby", "hobby3"));
+    String next = explain(query("findByCommonHobbyAndUuidGreaterThanOrderByUuid", String.class,
+        UUID.class, Pageable.class), Map.of("hobby", "hobby3", "uuid", FIRST));
+
+    // stops after the page instead of sorting every match
+    for (String plan : List.of(first, next)) {
+      assertTrue(plan.contains("employee_pkey"), () -> "Expected employee_pkey in\n" + plan);
+      assertFalse(plan.contains("Sort"), () -> "Expected no sort in\n" + plan);
+    }
+  }
+
+  private static String query(String method, Class<?>... parameterTypes) throws Exception {
+    return EmployeeRepository.class.getMethod(method, parameterTypes).getAnnotation(Query.class)
+        .value();
+  }
+
+  /** Plan of a page of 101, the limit Spring Data appends for the {@code Pageable}. */
+  private static String explain(String sql, Map<String, ?> parameters) {
+    return String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql + " limit 101",
+        parameters, String.class));
+  }
+}
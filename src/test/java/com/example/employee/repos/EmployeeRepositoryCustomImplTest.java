@@ -0,0 +1,258 @@
+package com.example.employee.repos;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.employee.domain.Employee;
+import com.example.employee.repos.EmployeeRepositoryCustom.Change;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+/**
+ * Counts the statements sent to the database by the {@code RETURNING} deletes and checks the
+ * tombstones they leave and the changes feed reading them.
+ */
+class EmployeeRepositoryCustomImplTest {
+
+  static final OffsetDateTime T = OffsetDateTime.parse("2024-01-01T10:00:00Z");
+  static final UUID NIL = new UUID(0, 0);
+
+  static final Set<String> STATEMENT_FACTORIES = Set.of("createStatement", "prepareStatement",
+      "prepareCall");
+
+  static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+  static SingleConnectionDataSource dataSource;
+  static final AtomicInteger statements = new AtomicInteger();
+
+  JdbcTemplate jdbcTemplate;
+  EmployeeRepositoryCustomImpl repository;
+
+  @BeforeAll
+  static void beforeAll() throws Exception {
+    postgres.start();
+    Connection connection = DriverManager.getConnection(postgres.getJdbcUrl(),
+        postgres.getUsername(), postgres.getPassword());
+    Connection counting = (Connection) Proxy.newProxyInstance(
+        Connection.class.getClassLoader(), new Class<?>[] { Connection.class },
+        (proxy, method, args) -> {
+          if (STATEMENT_FACTORIES.contains(method.getName())) {
+            statements.incrementAndGet();
+          }
+          try {
+            return method.invoke(connection, args);
+          } catch (InvocationTargetException e) {
+            throw e.getCause();
+          }
+        });
+    dataSource = new SingleConnectionDataSource(counting, true);
+    new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(dataSource);
+  }
+
+  @AfterAll
+  static void afterAll() {
+    dataSource.destroy();
+    postgres.stop();
+  }
+
+  @BeforeEach
+  void setUp() {
+    jdbcTemplate = new JdbcTemplate(dataSource);
+    jdbcTemplate.update("DELETE FROM employee");
+    jdbcTemplate.update("DELETE FROM employee_tombstone");
+    repository = new EmployeeRepositoryCustomImpl(jdbcTemplate);
+  }
+
+  @Test
+  void deleteReturningUsesOneStatement() {
+    UUID uuid = insert("john@doe");
+
+    statements.set(0);
+    Optional<Employee> deleted = repository.deleteReturning(uuid);
+
+    assertEquals(1, statements.get());
+    assertEquals("john@doe", deleted.orElseThrow().getEmail());
+    assertEquals(List.of("swimming"), deleted.orElseThrow().getHobbies());
+    assertEquals(0, jdbcTemplate.queryForObject("SELECT count(*) FROM employee", Integer.class));
+  }
+
+  @Test
+  void deleteReturningUnknownUsesOneStatement() {
+    statements.set(0);
+    Optional<Employee> deleted = repository.deleteReturning(UUID.randomUUID());
+
+    assertEquals(1, statements.get());
+    assertTrue(deleted.isEmpty());
+  }
+
+  @Test
+  void deleteAllReturningUsesOneStatement() {
+    UUID first = insert("john@doe");
+    UUID second = insert("jane@doe");
+
+    statements.set(0);
+    List<Employee> deleted = repository.deleteAllReturning(List.of(first, second, UUID.randomUUID()));
+
+    assertEquals(1, statements.get());
+    assertEquals(2, deleted.size());
+  }
+
+  @Test
+  void deleteReturningUpsertsTombstone() {
+    UUID uuid = insert("john@doe");
+    tombstone(uuid, T);
+
+    repository.deleteReturning(uuid);
+
+    OffsetDateTime deletedAt = jdbcTemplate.queryForObject(
+        "SELECT deleted_at FROM employee_tombstone WHERE uuid = ?", OffsetDateTime.class, uuid);
+    assertTrue(deletedAt.isAfter(T), () -> "Tombstone not moved: " + deletedAt);
+    assertEquals(1, jdbcTemplate.queryForObject("SELECT count(*) FROM employee_tombstone",
+        Integer.class));
+  }
+
+  @Test
+  void deleteAllReturningWritesTombstonesOfDeletedOnly() {
+    UUID first = insert("john@doe");
+    UUID second = insert("jane@doe");
+
+    repository.deleteAllReturning(List.of(first, second, UUID.randomUUID()));
+
+    assertEquals(Set.of(first, second), Set.copyOf(
+        jdbcTemplate.queryForList("SELECT uuid FROM employee_tombstone", UUID.class)));
+  }
+
+  @Test
+  void findChangesMergesEmployeesAndTombstonesBeforeUntil() {
+    insertChanges();
+
+    List<Change> changes = repository.findChanges(T.minusDays(1), NIL, T.plusSeconds(3), 10);
+
+    // ordered by (changed_at, uuid) across both tables, the change at until is not settled yet
+    assertEquals(List.of(uuid(4), uuid(1), uuid(2), uuid(3)), uuids(changes));
+    assertEquals(List.of(T, T.plusSeconds(1), T.plusSeconds(1), T.plusSeconds(2)),
+        changes.stream().map(change -> change.changedAt().withOffsetSameInstant(T.getOffset()))
+            .toList());
+    assertNull(changes.get(0).employee());
+    assertNotNull(changes.get(1).employee());
+    assertEquals("a@doe", changes.get(1).employee().getEmail());
+    assertEquals(T.minusDays(1).toInstant(),
+        changes.get(1).employee().getDateCreated().toInstant());
+    assertNull(changes.get(2).employee());
+  }
+
+  @Test
+  void findChangesResumesAfterWatermark() {
+    insertChanges();
+
+    List<Change> changes = repository.findChanges(T.plusSeconds(1), uuid(1), T.plusSeconds(3),
+        10);
+
+    // the tombstone sharing the watermark's time, with a greater uuid, still follows it
+    assertEquals(List.of(uuid(2), uuid(3)), uuids(changes));
+  }
+
+  @Test
+  void findChangesLimitsMergedChanges() {
+    insertChanges();
+
+    List<Change> changes = repository.findChanges(T.minusDays(1), NIL, T.plusSeconds(3), 3);
+
+    // the service asks for one more than a page to know whether another one follows
+    assertEquals(List.of(uuid(4), uuid(1), uuid(2)), uuids(changes));
+  }
+
+  @Test
+  void deleteTombstonesBeforeDeletesOlderInBatches() {
+    tombstone(uuid(1), T.minusDays(3));
+    tombstone(uuid(2), T.minusDays(2));
+    tombstone(uuid(3), T.minusDays(1));
+    tombstone(uuid(4), T);
+
+    assertEquals(2, repository.deleteTombstonesBefore(T.minusHours(1), 2));
+    assertEquals(1, repository.deleteTombstonesBefore(T.minusHours(1), 2));
+    assertEquals(0, repository.deleteTombstonesBefore(T.minusHours(1), 2));
+    assertEquals(List.of(uuid(4)),
+        jdbcTemplate.queryForList("SELECT uuid FROM employee_tombstone", UUID.class));
+  }
+
+  @Test
+  void collectionVersionMovesWithEmployeeWritesOnly() {
+    long created = collectionVersion();
+    UUID uuid = insert("john@doe");
+    assertTrue(collectionVersion() > created);
+
+    long deleted = collectionVersion();
+    repository.deleteReturning(uuid);
+    assertTrue(collectionVersion() > deleted);
+
+    // compacting tombstones leaves the collection as it is
+    long compacted = collectionVersion();
+    repository.deleteTombstonesBefore(OffsetDateTime.now().plusDays(1), 10);
+    assertEquals(compacted, collectionVersion());
+  }
+
+  private long collectionVersion() {
+    return jdbcTemplate.queryForObject("SELECT version FROM employee_collection_version",
+        Long.class);
+  }
+
+  /**
+   * Employees 1 and 3, tombstones 2 and 4, and employee 5 changed exactly at {@code T + 3s}.
+   */
+  private void insertChanges() {
+    insert(uuid(1), "a@doe", T.plusSeconds(1));
+    tombstone(uuid(2), T.plusSeconds(1));
+    insert(uuid(3), "c@doe", T.plusSeconds(2));
+    tombstone(uuid(4), T);
+    insert(uuid(5), "e@doe", T.plusSeconds(3));
+  }
+
+  private static UUID uuid(long n) {
+    return new UUID(0, n);
+  }
+
+  private static List<UUID> uuids(List<Change> changes) {
+    return changes.stream().map(Change::uuid).toList();
+  }
+
+  private void insert(UUID uuid, String email, OffsetDateTime lastUpdated) {
+    jdbcTemplate.update("""
+        INSERT INTO employee (uuid, birthday, date_created, email, full_name, hobbies, last_updated)
+        VALUES (?, date '1990-01-01', ?, ?, 'John Doe', ARRAY['swimming'], ?)""",
+        uuid, T.minusDays(1), email, lastUpdated);
+  }
+
+  private void tombstone(UUID uuid, OffsetDateTime deletedAt) {
+    jdbcTemplate.update("INSERT INTO employee_tombstone (uuid, deleted_at) VALUES (?, ?)",
+        uuid, deletedAt);
+  }
+
+  private UUID insert(String email) {
+    UUID uuid = UUID.randomUUID();
+    jdbcTemplate.update("""
+        INSERT INTO employee (uuid, birthday, date_created, email, full_name, hobbies, last_updated)
+        VALUES (?, date '1990-01-01', now(), ?, 'John Doe', ARRAY['swimming'], now())""",
+        uuid, email);
+    return uuid;
+  }
+}
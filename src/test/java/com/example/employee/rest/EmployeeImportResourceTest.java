@@ -0,0 +1,56 @@
+package com.example.employee.rest;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.example.employee.model.ImportStatus;
+import com.example.employee.service.EmployeeImportService;
+import com.example.employee.util.NotFoundException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MockMvc;
+
+@WebMvcTest(EmployeeImportResource.class)
+@Import(SimpleMeterRegistry.class)
+class EmployeeImportResourceTest {
+
+  @MockBean
+  private EmployeeImportService employeeImportService;
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Test
+  void importQueued() throws Exception {
+    ImportStatus importStatus = new ImportStatus();
+    importStatus.setJobId(UUID.randomUUID());
+    importStatus.setState(ImportStatus.State.QUEUED);
+    when(employeeImportService.start(any())).thenReturn(importStatus);
+
+    MockMultipartFile file = new MockMultipartFile("file", "employees.csv", "text/csv",
+        "email,fullName,birthday,hobbies\njohn@doe,John Doe,1990-01-01,swimming;hiking\n".getBytes());
+    mockMvc.perform(multipart("/api/employees/import").file(file))
+        .andExpect(status().isAccepted())
+        .andExpect(header().string("Location", "/api/employees/import/" + importStatus.getJobId()))
+        .andExpect(jsonPath("$.state").value("QUEUED"));
+  }
+
+  @Test
+  void importNotFound() throws Exception {
+    UUID jobId = UUID.randomUUID();
+    when(employeeImportService.getStatus(jobId)).thenThrow(new NotFoundException());
+
+    mockMvc.perform(get("/api/employees/import/{jobId}", jobId))
+        .andExpect(status().isNotFound());
+  }
+}
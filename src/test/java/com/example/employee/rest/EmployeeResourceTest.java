@@ -1,53 +1,121 @@
 package com.example.employee.rest;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import com.example.employee.config.Constants;
+import com.example.employee.config.JacksonConfig;
+import com.example.employee.model.BatchItemResult;
+import com.example.employee.model.EmployeeChange;
+import com.example.employee.model.EmployeeChanges;
 import com.example.employee.model.EmployeeDTO;
+import com.example.employee.model.EmployeePage;
+import com.example.employee.model.EmployeePatch;
+import com.example.employee.model.EmployeeSearchCriteria;
+import com.example.employee.model.EventTypes;
+import com.example.employee.model.FieldError;
+import com.example.employee.service.EmployeeChangesService;
+import com.example.employee.service.EmployeeExportService;
 import com.example.employee.service.EmployeeService;
+import com.example.employee.service.IdempotencyService;
+import com.example.employee.util.ETags;
+import com.example.employee.util.InvalidDataException;
 import com.example.employee.util.NotFoundException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 @WebMvcTest(EmployeeResource.class)
+@Import({ SimpleMeterRegistry.class, JacksonConfig.class })
 class EmployeeResourceTest {
 
   @MockBean
   private EmployeeService employeeService;
+  @MockBean
+  private EmployeeExportService employeeExportService;
+  @MockBean
+  private IdempotencyService idempotencyService;
+  @MockBean
+  private EmployeeChangesService employeeChangesService;
   @Autowired
   private MockMvc mockMvc;
+  @Autowired
+  private MeterRegistry meterRegistry;
 
   // Unhappy path, validations and error handling
   @Test
   void employeeNotFound() throws Exception {
     UUID uuid = UUID.randomUUID();
     when(employeeService.get(uuid)).thenThrow(new NotFoundException());
+    Counter notFound = meterRegistry.counter("employee.errors",
+        "exception", "NotFoundException", "status", "404");
+    double before = notFound.count();
 
     mockMvc.perform(get("/api/employees/{uuid}", uuid))
         .andExpect(status().isNotFound());
+    assertEquals(before + 1, notFound.count());
   }
 
   @Test
   void noEmployeesFound() throws Exception {
-    when(employeeService.findAll()).thenReturn(Collections.emptyList());
+    EmployeePage page = new EmployeePage();
+    page.setItems(Collections.emptyList());
+    when(employeeService.findPage(isNull(), anyInt(), isNull())).thenReturn(page);
     mockMvc.perform(get("/api/employees"))
-        .andExpect(jsonPath("$").isEmpty());
+        .andExpect(jsonPath("$").isEmpty())
+        .andExpect(header().doesNotExist(Constants.NEXT_CURSOR_HEADER));
+  }
+
+  @Test
+  void invalidPageCursor() throws Exception {
+    when(employeeService.findPage("garbage", Constants.DEFAULT_PAGE_SIZE, null))
+        .thenThrow(new IllegalArgumentException("Invalid cursor"));
+    mockMvc.perform(get("/api/employees").param("after", "garbage"))
+        .andExpect(status().isBadRequest());
   }
 
   @Test
@@ -141,8 +209,62 @@ class EmployeeResourceTest {
         .andExpect(status().isBadRequest());
   }
 
+  @Test
+  void exportUnknownFormat() throws Exception {
+    mockMvc.perform(get("/api/employees/export").param("format", "xml"))
+        .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  void createEmployeeMailAlreadyExist() throws Exception {
+    String payload = """
+            {
+              "email": "John@Doe",
+              "fullName": "John Doe",
+              "birthday": "1990-01-01"
+            }
+            """;
+    when(employeeService.create(any())).thenThrow(new DataIntegrityViolationException("duplicate",
+        new ConstraintViolationException("duplicate", new SQLException(), "employee_email_lower_key")));
+    mockMvc.perform(post("/api/employees")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(payload))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.message").value("Email already exists"));
+  }
+
+  @Test
+  void createEmployeeMailAlreadyExistBeforeMigration() throws Exception {
+    when(employeeService.create(any())).thenThrow(new DataIntegrityViolationException("duplicate",
+        new ConstraintViolationException("duplicate", new SQLException(), "uk_fopic1oh5oln2khj8eat6ino0")));
+    mockMvc.perform(post("/api/employees")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("""
+                {"email": "john@doe", "fullName": "John Doe", "birthday": "1990-01-01"}
+                """))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.message").value("Email already exists"));
+  }
+
   // Happy path
 
+  @Test
+  void exportEmployeesAsNdjson() throws Exception {
+    String rows = "{\"fullName\":\"John Doe\"}\n{\"fullName\":\"John2 Doe2\"}\n";
+    doAnswer(invocation -> {
+      invocation.<OutputStream>getArgument(0).write(rows.getBytes(StandardCharsets.UTF_8));
+      return null;
+    }).when(employeeExportService).exportNdjson(any());
+
+    MvcResult result = mockMvc.perform(get("/api/employees/export"))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+    mockMvc.perform(asyncDispatch(result))
+        .andExpect(status().isOk())
+        .andExpect(content().contentType("application/x-ndjson"))
+        .andExpect(content().string(rows));
+  }
+
   @Test
   void updateEmployee() throws Exception {
     String payload = """
@@ -181,6 +303,74 @@ class EmployeeResourceTest {
         .andExpect(jsonPath("$.uuid").value(uuid.toString()));
   }
 
+  @Test
+  void createEmployeeWithIdempotencyKeyReturnsTheFirstOutcome() throws Exception {
+    UUID uuid = UUID.randomUUID();
+    doReturn(uuid).when(idempotencyService)
+        .execute(eq("key-1"), eq("POST /api/employees"), any(), any());
+    mockMvc.perform(post("/api/employees")
+            .header(Constants.IDEMPOTENCY_KEY_HEADER, "key-1")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("""
+                {"email": "john@doe", "fullName": "John Doe", "birthday": "1990-01-01"}
+                """))
+        .andExpect(status().isCreated())
+        .andExpect(jsonPath("$.uuid").value(uuid.toString()));
+    verify(employeeService, never()).create(any());
+  }
+
+  @Test
+  void getChanges() throws Exception {
+    EmployeeChange deleted = new EmployeeChange();
+    deleted.setChangeType(EventTypes.DELETED);
+    deleted.setUuid(UUID.randomUUID());
+    EmployeeChanges changes = new EmployeeChanges();
+    changes.setChanges(List.of(deleted));
+    changes.setWatermark("next");
+    when(employeeChangesService.changes("previous", 50)).thenReturn(changes);
+
+    mockMvc.perform(get("/api/employees/changes").param("since", "previous").param("limit", "50"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.changes[0].changeType").value("DELETED"))
+        .andExpect(jsonPath("$.changes[0].uuid").value(deleted.getUuid().toString()))
+        .andExpect(jsonPath("$.watermark").value("next"))
+        .andExpect(jsonPath("$.hasMore").value(false));
+  }
+
+  @Test
+  void createEmployeesBatch() throws Exception {
+    String payload = """
+            [
+              {
+                "email": "john@doe",
+                "fullName": "John Doe",
+                "birthday": "1990-01-01"
+              },
+              {
+                "email": "john?doe",
+                "fullName": "John Doe",
+                "birthday": "1990-01-01"
+              }
+            ]
+            """;
+    UUID uuid = UUID.randomUUID();
+    BatchItemResult created = new BatchItemResult();
+    created.setIndex(0);
+    created.setHttpStatus(201);
+    created.setUuid(uuid);
+    BatchItemResult rejected = new BatchItemResult();
+    rejected.setIndex(1);
+    rejected.setHttpStatus(400);
+    when(employeeService.createAll(any())).thenReturn(List.of(created, rejected));
+
+    mockMvc.perform(post("/api/employees/batch")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(payload))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$[0].uuid").value(uuid.toString()))
+        .andExpect(jsonPath("$[1].httpStatus").value(400));
+  }
+
   @Test
   void employeeFound() throws Exception {
     UUID uuid = UUID.randomUUID();
@@ -189,6 +379,7 @@ class EmployeeResourceTest {
     employeeDTO.setEmail("john2@doe2");
     employeeDTO.setBirthday("1990-02-02");
     employeeDTO.setHobbies(List.of("sleeping"));
+    employeeDTO.setLastUpdated(OffsetDateTime.parse("2024-01-01T10:00:00Z"));
 
     when(employeeService.get(uuid)).thenReturn(employeeDTO);
 
@@ -197,6 +388,96 @@ class EmployeeResourceTest {
         .andExpect(jsonPath("$.fullName").value(employeeDTO.getFullName()));
   }
 
+  @Test
+  void patchEmployee() throws Exception {
+    UUID uuid = UUID.randomUUID();
+    when(employeeService.patch(eq(uuid), any())).thenReturn(uuid);
+
+    mockMvc.perform(patch("/api/employees/{uuid}", uuid)
+            .contentType("application/merge-patch+json")
+            .content("{\"hobbies\": [\"chess\"]}"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.uuid").value(uuid.toString()));
+
+    ArgumentCaptor<EmployeePatch> employeePatch = ArgumentCaptor.forClass(EmployeePatch.class);
+    verify(employeeService).patch(eq(uuid), employeePatch.capture());
+    assertEquals(Set.of("hobbies"), employeePatch.getValue().getFields());
+    assertEquals(List.of("chess"), employeePatch.getValue().getValues().getHobbies());
+  }
+
+  @Test
+  void patchEmployeeInvalidData() throws Exception {
+    UUID uuid = UUID.randomUUID();
+    FieldError fieldError = new FieldError();
+    fieldError.setField("email");
+    when(employeeService.patch(eq(uuid), any()))
+        .thenThrow(new InvalidDataException(List.of(fieldError)));
+
+    mockMvc.perform(patch("/api/employees/{uuid}", uuid)
+            .contentType("application/merge-patch+json")
+            .content("{\"email\": null}"))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.fieldErrors[0].field").value("email"));
+  }
+
+  @Test
+  void employeeFoundWithETag() throws Exception {
+    UUID uuid = UUID.randomUUID();
+    OffsetDateTime lastUpdated = OffsetDateTime.parse("2024-01-01T10:00:00.123456Z");
+    EmployeeDTO employeeDTO = new EmployeeDTO();
+    employeeDTO.setFullName("John2 Doe2");
+    employeeDTO.setLastUpdated(lastUpdated);
+    String eTag = ETags.of(uuid, lastUpdated);
+
+    when(employeeService.get(uuid)).thenReturn(employeeDTO);
+
+    mockMvc.perform(get("/api/employees/{uuid}", uuid))
+        .andExpect(status().isOk())
+        .andExpect(header().string("ETag", eTag))
+        .andExpect(jsonPath("$.lastUpdated").doesNotExist());
+  }
+
+  @Test
+  void employeeNotModified() throws Exception {
+    UUID uuid = UUID.randomUUID();
+    OffsetDateTime lastUpdated = OffsetDateTime.parse("2024-01-01T10:00:00Z");
+    EmployeeDTO employeeDTO = new EmployeeDTO();
+    employeeDTO.setLastUpdated(lastUpdated);
+    String eTag = ETags.of(uuid, lastUpdated);
+
+    when(employeeService.get(uuid)).thenReturn(employeeDTO);
+
+    mockMvc.perform(get("/api/employees/{uuid}", uuid).header("If-None-Match", eTag))
+        .andExpect(status().isNotModified())
+        .andExpect(header().string("ETag", eTag))
+        .andExpect(content().string(""));
+  }
+
+  @Test
+  void employeesPageNotModified() throws Exception {
+    String eTag = ETags.ofCollection(42);
+
+    when(employeeService.getCollectionETag()).thenReturn(eTag);
+
+    mockMvc.perform(get("/api/employees").header("If-None-Match", eTag))
+        .andExpect(status().isNotModified());
+    verify(employeeService, never()).findPage(any(), anyInt(), any());
+  }
+
+  @Test
+  void employeesPageChanged() throws Exception {
+    String eTag = ETags.ofCollection(42);
+    EmployeePage page = new EmployeePage();
+    page.setItems(Collections.emptyList());
+
+    when(employeeService.getCollectionETag()).thenReturn(eTag);
+    when(employeeService.findPage(isNull(), anyInt(), isNull())).thenReturn(page);
+
+    mockMvc.perform(get("/api/employees").header("If-None-Match", "\"stale\""))
+        .andExpect(status().isOk())
+        .andExpect(header().string("ETag", eTag));
+  }
+
   @Test
   void allEmployeesFound() throws Exception {
     EmployeeDTO employeeDTO = new EmployeeDTO();
@@ -213,12 +494,115 @@ class EmployeeResourceTest {
 
     when(employeeService.findAll()).thenReturn(List.of(employeeDTO, employeeDTO2));
 
-    mockMvc.perform(get("/api/employees"))
+    mockMvc.perform(get("/api/employees").param("unpaged", "true"))
         .andExpect(status().isOk())
         .andExpect(jsonPath("$[0].fullName").value(employeeDTO.getFullName()))
         .andExpect(jsonPath("$[1].fullName").value(employeeDTO2.getFullName()));
   }
 
+  @Test
+  void employeesPageFound() throws Exception {
+    EmployeeDTO employeeDTO = new EmployeeDTO();
+    employeeDTO.setFullName("John Doe");
+    employeeDTO.setEmail("john@doe");
+    employeeDTO.setBirthday("1990-02-02");
+    employeeDTO.setHobbies(List.of("sleeping"));
+    EmployeePage page = new EmployeePage();
+    page.setItems(List.of(employeeDTO));
+    page.setNextCursor("next-cursor");
+
+    when(employeeService.findPage("cursor", 1, null)).thenReturn(page);
+
+    mockMvc.perform(get("/api/employees").param("after", "cursor").param("limit", "1"))
+        .andExpect(status().isOk())
+        .andExpect(header().string(Constants.NEXT_CURSOR_HEADER, "next-cursor"))
+        .andExpect(jsonPath("$[0].fullName").value(employeeDTO.getFullName()));
+  }
+
+  @Test
+  void employeesPageAsSmile() throws Exception {
+    EmployeeDTO employeeDTO = new EmployeeDTO();
+    employeeDTO.setFullName("John Doe");
+    employeeDTO.setEmail("john@doe");
+    employeeDTO.setBirthday("1990-02-02");
+    employeeDTO.setHobbies(List.of("sleeping"));
+    EmployeePage page = new EmployeePage();
+    page.setItems(List.of(employeeDTO));
+
+    when(employeeService.findPage(isNull(), anyInt(), isNull())).thenReturn(page);
+
+    MvcResult result = mockMvc.perform(get("/api/employees").accept(Constants.APPLICATION_SMILE))
+        .andExpect(status().isOk())
+        .andExpect(content().contentType(Constants.APPLICATION_SMILE))
+        .andReturn();
+
+    JsonNode employees = new ObjectMapper(new SmileFactory())
+        .readTree(result.getResponse().getContentAsByteArray());
+    assertEquals(employeeDTO.getFullName(), employees.get(0).get("fullName").asText());
+    assertEquals(employeeDTO.getBirthday(), employees.get(0).get("birthday").asText());
+  }
+
+  @Test
+  void jsonStaysTheDefault() throws Exception {
+    EmployeePage page = new EmployeePage();
+    page.setItems(Collections.emptyList());
+
+    when(employeeService.findPage(isNull(), anyInt(), isNull())).thenReturn(page);
+
+    mockMvc.perform(get("/api/employees").accept(MediaType.ALL))
+        .andExpect(status().isOk())
+        .andExpect(content().contentType(MediaType.APPLICATION_JSON));
+  }
+
+  @Test
+  void employeesByHobby() throws Exception {
+    EmployeeDTO employeeDTO = new EmployeeDTO();
+    employeeDTO.setUuid(UUID.randomUUID());
+    employeeDTO.setHobbies(List.of("soccer", "chess"));
+    EmployeePage page = new EmployeePage();
+    page.setItems(List.of(employeeDTO));
+
+    when(employeeService.findPage(null, Constants.DEFAULT_PAGE_SIZE, "soccer")).thenReturn(page);
+
+    mockMvc.perform(get("/api/employees").param("hobby", "soccer"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$[0].hobbies[0]").value("soccer"));
+  }
+
+  @Test
+  void searchBindsFilters() throws Exception {
+    EmployeePage page = new EmployeePage();
+    page.setItems(Collections.emptyList());
+    page.setNextCursor("next-cursor");
+    when(employeeService.search(any(EmployeeSearchCriteria.class), isNull(), eq(10)))
+        .thenReturn(page);
+
+    mockMvc.perform(get("/api/employees/search")
+            .param("birthdayFrom", "1990-01-01")
+            .param("namePrefix", "jo")
+            .param("emailDomain", "doe.com")
+            .param("updatedFrom", "2023-10-01T10:00:00+02:00")
+            .param("limit", "10"))
+        .andExpect(status().isOk())
+        .andExpect(header().string(Constants.NEXT_CURSOR_HEADER, "next-cursor"));
+
+    ArgumentCaptor<EmployeeSearchCriteria> criteria =
+        ArgumentCaptor.forClass(EmployeeSearchCriteria.class);
+    verify(employeeService).search(criteria.capture(), isNull(), eq(10));
+    assertEquals(LocalDate.of(1990, 1, 1), criteria.getValue().getBirthdayFrom());
+    assertEquals("jo", criteria.getValue().getNamePrefix());
+    assertEquals("doe.com", criteria.getValue().getEmailDomain());
+    assertEquals(OffsetDateTime.parse("2023-10-01T10:00:00+02:00"),
+        criteria.getValue().getUpdatedFrom());
+  }
+
+  @Test
+  void searchRejectsInvalidDate() throws Exception {
+    mockMvc.perform(get("/api/employees/search").param("birthdayTo", "01.01.1990"))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.fieldErrors[0].field").value("birthdayTo"));
+  }
+
   @Test
   void employeeDeleted() throws Exception {
     UUID uuid = UUID.randomUUID();
@@ -0,0 +1,124 @@
+package com.example.employee.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.employee.domain.Employee;
+import com.example.employee.model.EmployeeChanges;
+import com.example.employee.model.EventTypes;
+import com.example.employee.repos.EmployeeRepository;
+import com.example.employee.repos.EmployeeRepositoryCustom.Change;
+import com.example.employee.util.CursorCodec;
+import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+class EmployeeChangesServiceTest {
+
+  private EmployeeRepository employeeRepository;
+  private EmployeeChangesService employeeChangesService;
+  // database precision
+  private final OffsetDateTime since = OffsetDateTime.now().minusDays(1).truncatedTo(ChronoUnit.MICROS);
+
+  @BeforeEach
+  void setUp() {
+    employeeRepository = mock(EmployeeRepository.class);
+    employeeChangesService = new EmployeeChangesService(employeeRepository, 5000, 30);
+  }
+
+  @Test
+  void changesAreTypedRelativeToTheWatermark() {
+    Change created = change(since.plusHours(1), since.plusHours(1));
+    Change updated = change(since.minusDays(1), since.plusHours(2));
+    Change deleted = new Change(UUID.randomUUID(), since.plusHours(3), null);
+    when(employeeRepository.findChanges(any(), any(), any(), anyInt()))
+        .thenReturn(List.of(created, updated, deleted));
+
+    EmployeeChanges changes = employeeChangesService.changes(since.toString(), 10);
+
+    assertEquals(List.of(EventTypes.CREATED, EventTypes.UPDATED, EventTypes.DELETED),
+        changes.getChanges().stream().map(change -> change.getChangeType()).toList());
+    assertEquals(created.uuid(), changes.getChanges().get(0).getEmployee().getUuid());
+    assertNull(changes.getChanges().get(2).getEmployee());
+    assertFalse(changes.isHasMore());
+  }
+
+  @Test
+  void fullPageContinuesAfterItsLastChange() {
+    Change first = change(since, since.plusHours(1));
+    Change second = change(since, since.plusHours(2));
+    when(employeeRepository.findChanges(any(), any(), any(), eq(2)))
+        .thenReturn(List.of(first, second));
+
+    EmployeeChanges changes = employeeChangesService.changes(since.toString(), 1);
+
+    assertTrue(changes.isHasMore());
+    assertEquals(new CursorCodec.Watermark(first.changedAt(), first.uuid()),
+        CursorCodec.decodeWatermark(changes.getWatermark()));
+  }
+
+  @Test
+  void lastPageMovesTheWatermarkToWhatHasSettled() {
+    when(employeeRepository.findChanges(any(), any(), any(), anyInt())).thenReturn(List.of());
+
+    EmployeeChanges changes = employeeChangesService.changes(since.toString(), 10);
+
+    ArgumentCaptor<OffsetDateTime> until = ArgumentCaptor.forClass(OffsetDateTime.class);
+    verify(employeeRepository).findChanges(eq(since), eq(new UUID(0, 0)), until.capture(), eq(11));
+    CursorCodec.Watermark watermark = CursorCodec.decodeWatermark(changes.getWatermark());
+    assertFalse(watermark.changedAt().isBefore(until.getValue().minusNanos(1000)));
+    assertTrue(watermark.changedAt().isBefore(OffsetDateTime.now().minusSeconds(4)));
+  }
+
+  @Test
+  void watermarkOlderThanTheTombstonesIsGone() {
+    ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+        () -> employeeChangesService.changes(OffsetDateTime.now().minusDays(31).toString(), 10));
+
+    assertEquals(HttpStatus.GONE, exception.getStatusCode());
+  }
+
+  @Test
+  void rejectsInvalidSince() {
+    assertThrows(IllegalArgumentException.class,
+        () -> employeeChangesService.changes("not-a-watermark", 10));
+    assertThrows(IllegalArgumentException.class,
+        () -> employeeChangesService.changes("2024-13-01T00:00:00Z", 10));
+  }
+
+  @Test
+  void compactionDeletesInBatchesUntilDone() {
+    when(employeeRepository.deleteTombstonesBefore(any(), anyInt())).thenReturn(1000, 1000, 3);
+
+    employeeChangesService.compactTombstones();
+
+    verify(employeeRepository, times(3)).deleteTombstonesBefore(any(), eq(1000));
+  }
+
+  private static Change change(OffsetDateTime created, OffsetDateTime changedAt) {
+    Employee employee = new Employee();
+    employee.setUuid(UUID.randomUUID());
+    employee.setEmail("john@doe");
+    employee.setFullName("John Doe");
+    employee.setBirthday("1990-01-01");
+    employee.setDateCreated(created);
+    employee.setLastUpdated(changedAt);
+    return new Change(employee.getUuid(), changedAt, employee);
+  }
+}
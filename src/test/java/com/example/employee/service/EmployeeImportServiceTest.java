@@ -0,0 +1,221 @@
+package com.example.employee.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.example.employee.events.EmployeeEventPublisher;
+import com.example.employee.model.EmployeeEvent;
+import com.example.employee.model.EventTypes;
+import com.example.employee.model.FieldError;
+import com.example.employee.model.ImportStatus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import java.nio.charset.StandardCharsets;
+import java.sql.Array;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.mock.web.MockMultipartFile;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+/**
+ * Imports CSV files into PostgreSQL: the chunked merge with its duplicate handling, per-row
+ * validation, job status and the {@code CREATED} events of imported employees.
+ */
+class EmployeeImportServiceTest {
+
+  static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+  static DriverManagerDataSource dataSource;
+
+  final ObjectMapper objectMapper = new ObjectMapper();
+  JdbcTemplate jdbcTemplate;
+  EmployeeEventPublisher employeeEventPublisher;
+  EmployeeImportService importService;
+
+  @BeforeAll
+  static void beforeAll() {
+    postgres.start();
+    dataSource = new DriverManagerDataSource(postgres.getJdbcUrl(), postgres.getUsername(),
+        postgres.getPassword());
+    new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(dataSource);
+  }
+
+  @AfterAll
+  static void afterAll() {
+    postgres.stop();
+  }
+
+  @BeforeEach
+  void setUp() {
+    jdbcTemplate = new JdbcTemplate(dataSource);
+    jdbcTemplate.update("DELETE FROM employee");
+    jdbcTemplate.update("DELETE FROM employee_outbox");
+    employeeEventPublisher = mock(EmployeeEventPublisher.class);
+  }
+
+  @AfterEach
+  void tearDown() {
+    if (importService != null) {
+      importService.shutdown();
+    }
+  }
+
+  @Test
+  void mergeSkipsEmailsRepeatedInFileOrTaken() throws Exception {
+    jdbcTemplate.update("""
+        INSERT INTO employee (uuid, birthday, date_created, email, full_name, last_updated)
+        VALUES (gen_random_uuid(), date '1980-01-01', now(), 'taken@doe.com', 'Tom Taken',
+                now())""");
+
+    // chunks of two lines: Anna is repeated within a chunk, Bob across chunks
+    ImportStatus status = importCsv("outbox", 2, """
+        email,fullName,birthday,hobbies
+        anna@doe.com,Anna First,1990-01-01,chess;go
+        ANNA@doe.com,Anna Second,1990-01-02,
+        TAKEN@doe.com,Tom Other,1990-01-03,
+        bob@doe.com,Bob First,1990-01-04,
+        Bob@doe.com,Bob Second,1990-01-05,
+        """);
+
+    assertEquals(ImportStatus.State.COMPLETED, status.getState());
+    assertEquals(5, status.getRowsRead());
+    assertEquals(0, status.getRowsRejected());
+    assertEquals(2, status.getRowsInserted());
+    assertEquals(3, status.getRowsConflicting());
+    assertNotNull(status.getStartedAt());
+    assertNotNull(status.getFinishedAt());
+    assertEquals(List.of(
+            Map.of("email", "anna@doe.com", "full_name", "Anna First"),
+            Map.of("email", "bob@doe.com", "full_name", "Bob First"),
+            Map.of("email", "taken@doe.com", "full_name", "Tom Taken")),
+        jdbcTemplate.queryForList("SELECT email, full_name FROM employee ORDER BY email"));
+    assertEquals(List.of("chess", "go"), List.of((String[]) jdbcTemplate.queryForObject(
+        "SELECT hobbies FROM employee WHERE email = 'anna@doe.com'", Array.class)
+        .getArray()));
+  }
+
+  @Test
+  void invalidRowsAreRejectedWithTheirLine() throws Exception {
+    ImportStatus status = importCsv("outbox", 100, """
+        email,fullName,birthday
+        anna@doe.com,Anna First,1990-01-01
+        not-an-email,Bob First,1990-01-02
+        carl@doe.com,Carl First,
+        """);
+
+    assertEquals(ImportStatus.State.COMPLETED, status.getState());
+    assertEquals(3, status.getRowsRead());
+    assertEquals(2, status.getRowsRejected());
+    assertEquals(1, status.getRowsInserted());
+    assertEquals(0, status.getRowsConflicting());
+    assertEquals(List.of("line 3", "line 4"),
+        status.getErrors().stream().map(FieldError::getField).toList());
+    assertEquals(List.of("anna@doe.com"),
+        jdbcTemplate.queryForList("SELECT email FROM employee", String.class));
+  }
+
+  @Test
+  void missingColumnsFailTheJob() throws Exception {
+    ImportStatus status = importCsv("outbox", 100, """
+        email,name
+        anna@doe.com,Anna First
+        """);
+
+    assertEquals(ImportStatus.State.FAILED, status.getState());
+    assertTrue(status.getMessage().contains("email, fullName and birthday"), status.getMessage());
+    assertEquals(0, jdbcTemplate.queryForObject("SELECT count(*) FROM employee", Integer.class));
+  }
+
+  @Test
+  void importedEmployeesGetCreatedEventsInTheOutbox() throws Exception {
+    ImportStatus status = importCsv("outbox", 2, """
+        email,fullName,birthday,hobbies
+        anna@doe.com,Anna First,1990-01-01,chess;go
+        bob@doe.com,Bob First,1990-01-04,
+        carl@doe.com,Carl First,1990-01-05,
+        anna@doe.com,Anna Second,1990-01-02,
+        """);
+
+    assertEquals(3, status.getRowsInserted());
+    List<Map<String, Object>> rows = jdbcTemplate.queryForList("""
+        SELECT o.event_id, o.employee_uuid, o.event_type, o.payload, e.email
+        FROM employee_outbox o JOIN employee e ON e.uuid = o.employee_uuid ORDER BY e.email""");
+    assertEquals(3, rows.size());
+    EmployeeEvent anna = objectMapper.readValue((String) rows.get(0).get("payload"),
+        EmployeeEvent.class);
+    assertEquals(rows.get(0).get("event_id"), anna.getEventId());
+    assertEquals(rows.get(0).get("employee_uuid"), anna.getUuid());
+    assertEquals("CREATED", rows.get(0).get("event_type"));
+    assertEquals(EventTypes.CREATED, anna.getEventType());
+    assertEquals("anna@doe.com", anna.getEmail());
+    assertEquals("Anna First", anna.getFullName());
+    assertEquals("1990-01-01", anna.getBirthday());
+    assertEquals(List.of("chess", "go"), anna.getHobbies());
+    EmployeeEvent bob = objectMapper.readValue((String) rows.get(1).get("payload"),
+        EmployeeEvent.class);
+    assertNull(bob.getHobbies());
+    verify(employeeEventPublisher, never()).publishAll(any());
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  void otherPublishersGetTheCreatedEventsOfEachChunk() throws Exception {
+    ImportStatus status = importCsv("direct", 2, """
+        email,fullName,birthday,hobbies
+        anna@doe.com,Anna First,1990-01-01,chess;go
+        bob@doe.com,Bob First,1990-01-04,
+        carl@doe.com,Carl First,1990-01-05,
+        anna@doe.com,Anna Second,1990-01-02,
+        """);
+
+    assertEquals(3, status.getRowsInserted());
+    ArgumentCaptor<List<EmployeeEvent>> events = ArgumentCaptor.forClass(List.class);
+    verify(employeeEventPublisher, times(2)).publishAll(events.capture());
+    List<EmployeeEvent> published = events.getAllValues().stream().flatMap(List::stream).toList();
+    assertEquals(jdbcTemplate.queryForList("SELECT uuid FROM employee ORDER BY email", UUID.class),
+        published.stream().sorted((a, b) -> a.getEmail().compareTo(b.getEmail()))
+            .map(EmployeeEvent::getUuid).toList());
+    assertTrue(published.stream().allMatch(event -> event.getEventType() == EventTypes.CREATED));
+    assertEquals(List.of("chess", "go"), published.stream()
+        .filter(event -> event.getEmail().equals("anna@doe.com")).findFirst().orElseThrow()
+        .getHobbies());
+    assertEquals(0, jdbcTemplate.queryForObject("SELECT count(*) FROM employee_outbox",
+        Integer.class));
+  }
+
+  private ImportStatus importCsv(String publisher, int mergeChunkRows, String csv)
+      throws Exception {
+    importService = new EmployeeImportService(dataSource,
+        Validation.buildDefaultValidatorFactory().getValidator(), employeeEventPublisher,
+        publisher, 1, mergeChunkRows);
+    ImportStatus status = importService.start(new MockMultipartFile("file", "employees.csv",
+        "text/csv", csv.getBytes(StandardCharsets.UTF_8)));
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    while (status.getState() != ImportStatus.State.COMPLETED
+        && status.getState() != ImportStatus.State.FAILED) {
+      assertTrue(System.nanoTime() < deadline, "Import did not finish: " + status.getState());
+      TimeUnit.MILLISECONDS.sleep(20);
+      status = importService.getStatus(status.getJobId());
+    }
+    return status;
+  }
+}
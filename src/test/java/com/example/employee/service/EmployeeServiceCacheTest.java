@@ -0,0 +1,110 @@
+package com.example.employee.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.employee.config.CacheConfig;
+import com.example.employee.domain.Employee;
+import com.example.employee.events.EmployeeEventPublisher;
+import com.example.employee.model.EmployeeDTO;
+import com.example.employee.repos.EmployeeRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validator;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+@SpringJUnitConfig
+class EmployeeServiceCacheTest {
+
+  @Configuration
+  @Import(CacheConfig.class)
+  static class Config {
+
+    @Bean
+    CacheManager cacheManager() {
+      return new CaffeineCacheManager(CacheConfig.EMPLOYEES);
+    }
+
+    @Bean
+    EmployeeRepository employeeRepository() {
+      return mock(EmployeeRepository.class);
+    }
+
+    @Bean
+    EmployeeService employeeService(EmployeeRepository employeeRepository) {
+      return new EmployeeService(employeeRepository, mock(EmployeeEventPublisher.class),
+          mock(IdempotencyService.class), mock(Validator.class), new SimpleMeterRegistry());
+    }
+  }
+
+  @Autowired
+  private EmployeeService employeeService;
+  @Autowired
+  private EmployeeRepository employeeRepository;
+  @Autowired
+  private CacheManager cacheManager;
+
+  private Employee employee;
+
+  @BeforeEach
+  void setUp() {
+    reset(employeeRepository);
+    cacheManager.getCache(CacheConfig.EMPLOYEES).clear();
+    employee = new Employee();
+    employee.setUuid(UUID.randomUUID());
+    employee.setFullName("John Doe");
+    employee.setEmail("john@doe");
+    employee.setBirthday("1990-01-01");
+    employee.setHobbies(List.of("swimming"));
+    when(employeeRepository.findById(employee.getUuid())).thenReturn(Optional.of(employee));
+    when(employeeRepository.saveAndFlush(any())).thenAnswer(invocation -> invocation.getArgument(0));
+  }
+
+  @Test
+  void repeatedReadsHitCache() {
+    employeeService.get(employee.getUuid());
+    EmployeeDTO employeeDTO = employeeService.get(employee.getUuid());
+
+    assertEquals("John Doe", employeeDTO.getFullName());
+    verify(employeeRepository, times(1)).findById(employee.getUuid());
+  }
+
+  @Test
+  void updateEvictsCachedEmployee() {
+    employeeService.get(employee.getUuid());
+
+    EmployeeDTO update = new EmployeeDTO();
+    update.setEmail("john@doe");
+    update.setFullName("Johnny Doe");
+    update.setBirthday("1990-01-01");
+    employeeService.update(employee.getUuid(), update);
+
+    assertEquals("Johnny Doe", employeeService.get(employee.getUuid()).getFullName());
+  }
+
+  @Test
+  void deleteEvictsCachedEmployee() {
+    when(employeeRepository.deleteReturning(employee.getUuid())).thenReturn(Optional.of(employee));
+
+    employeeService.get(employee.getUuid());
+    employeeService.delete(employee.getUuid());
+    employeeService.get(employee.getUuid());
+
+    verify(employeeRepository, times(2)).findById(employee.getUuid());
+  }
+}
@@ -0,0 +1,208 @@
+package com.example.employee.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+import com.example.employee.domain.Employee;
+import com.example.employee.events.EmployeeEventPublisher;
+import com.example.employee.model.BatchItemResult;
+import com.example.employee.model.EmployeeDTO;
+import com.example.employee.model.EmployeeEvent;
+import com.example.employee.model.EmployeePatch;
+import com.example.employee.model.EventTypes;
+import com.example.employee.model.FieldError;
+import com.example.employee.repos.EmployeeRepository;
+import com.example.employee.util.CursorCodec;
+import com.example.employee.util.InvalidDataException;
+import com.example.employee.util.NotFoundException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+class EmployeeServiceTest {
+
+  private EmployeeRepository employeeRepository;
+  private EmployeeEventPublisher employeeEventPublisher;
+  private IdempotencyService idempotencyService;
+  private EmployeeService employeeService;
+  private SimpleMeterRegistry meterRegistry;
+
+  @BeforeEach
+  void setUp() {
+    employeeRepository = mock(EmployeeRepository.class);
+    employeeEventPublisher = mock(EmployeeEventPublisher.class);
+    idempotencyService = mock(IdempotencyService.class);
+    meterRegistry = new SimpleMeterRegistry();
+    employeeService = new EmployeeService(employeeRepository, employeeEventPublisher,
+        idempotencyService, Validation.buildDefaultValidatorFactory().getValidator(), meterRegistry);
+    when(employeeRepository.saveAllAndFlush(anyList())).thenAnswer(invocation -> {
+      List<Employee> employees = invocation.getArgument(0);
+      employees.forEach(employee -> employee.setUuid(UUID.randomUUID()));
+      return employees;
+    });
+  }
+
+  @Test
+  void createAllReportsPerItemResults() {
+    when(employeeRepository.findExistingEmails(anyCollection())).thenReturn(List.of("taken@doe"));
+
+    List<BatchItemResult> results = employeeService.createAll(List.of(
+        employee("john@doe"),
+        employee("TAKEN@doe"),
+        employee("John@Doe"),
+        employee("not-an-email"),
+        employee(null)));
+
+    assertEquals(201, results.get(0).getHttpStatus());
+    assertNotNull(results.get(0).getUuid());
+    assertEquals("Email already exists", results.get(1).getMessage());
+    assertEquals("Email is duplicated in the batch", results.get(2).getMessage());
+    assertEquals("email", results.get(3).getFieldErrors().get(0).getField());
+    assertEquals("NotNull", results.get(4).getFieldErrors().get(0).getErrorCode());
+    verify(employeeRepository, times(1)).findExistingEmails(anyCollection());
+    verify(employeeEventPublisher).publishAll(anyList());
+  }
+
+  @Test
+  void findPageWalksPrimaryKeyForCommonHobby() {
+    UUID after = UUID.randomUUID();
+    when(employeeRepository.isCommonHobby("soccer")).thenReturn(true);
+
+    employeeService.findPage(null, 10, "soccer");
+    employeeService.findPage(CursorCodec.encode(after), 10, "soccer");
+
+    verify(employeeRepository).findByCommonHobbyOrderByUuid(eq("soccer"), any());
+    verify(employeeRepository).findByCommonHobbyAndUuidGreaterThanOrderByUuid(eq("soccer"), eq(after),
+        any());
+    verify(employeeRepository, times(1)).isCommonHobby("soccer");
+  }
+
+  @Test
+  void findPageUsesHobbyIndexForRareHobby() {
+    employeeService.findPage(null, 10, "curling");
+
+    verify(employeeRepository).findByHobbyOrderByUuid(eq("curling"), any());
+    verify(employeeRepository, never()).findByCommonHobbyOrderByUuid(any(), any());
+  }
+
+  @Test
+  void createAllRejectsOversizedBatch() {
+    List<EmployeeDTO> employees = Collections.nCopies(1001, employee("john@doe"));
+    assertThrows(IllegalArgumentException.class, () -> employeeService.createAll(employees));
+    assertThrows(IllegalArgumentException.class, () -> employeeService.createAll(List.of()));
+  }
+
+  @Test
+  void patchWritesAndPublishesOnlyChangedFields() throws Exception {
+    UUID uuid = UUID.randomUUID();
+    Employee employee = new Employee();
+    employee.setUuid(uuid);
+    employee.setEmail("john@doe");
+    employee.setFullName("John Doe");
+    employee.setBirthday("1990-01-01");
+    employee.setHobbies(List.of("swimming"));
+    when(employeeRepository.findById(uuid)).thenReturn(Optional.of(employee));
+
+    employeeService.patch(uuid, patch(
+        "{\"fullName\": \"John Doe\", \"birthday\": \"1991-01-01\", \"hobbies\": null}"));
+
+    ArgumentCaptor<EmployeeEvent> event = ArgumentCaptor.forClass(EmployeeEvent.class);
+    verify(employeeRepository).saveAndFlush(employee);
+    verify(employeeEventPublisher).publish(event.capture());
+    assertEquals(List.of("birthday", "hobbies"), event.getValue().getChangedFields());
+    assertEquals(EventTypes.UPDATED, event.getValue().getEventType());
+    assertEquals("1991-01-01", event.getValue().getBirthday());
+    assertNull(event.getValue().getFullName());
+    assertNull(employee.getHobbies());
+    assertEquals("john@doe", employee.getEmail());
+  }
+
+  @Test
+  void patchWithoutChangesIsNotWritten() throws Exception {
+    UUID uuid = UUID.randomUUID();
+    Employee employee = new Employee();
+    employee.setEmail("john@doe");
+    when(employeeRepository.findById(uuid)).thenReturn(Optional.of(employee));
+
+    employeeService.patch(uuid, patch("{\"email\": \"john@doe\"}"));
+
+    verify(employeeRepository, never()).saveAndFlush(any());
+    verify(employeeEventPublisher, never()).publish(any());
+  }
+
+  @Test
+  void patchValidatesOnlySuppliedFields() throws Exception {
+    UUID uuid = UUID.randomUUID();
+
+    InvalidDataException exception = assertThrows(InvalidDataException.class,
+        () -> employeeService.patch(uuid, patch("{\"email\": null, \"fullName\": \"John\"}")));
+
+    assertEquals(List.of("email", "fullName"), exception.getFieldErrors().stream()
+        .map(FieldError::getField).sorted().toList());
+    verify(employeeRepository, never()).findById(uuid);
+  }
+
+  @Test
+  void deleteBuildsEventFromDeletedRow() {
+    UUID uuid = UUID.randomUUID();
+    Employee employee = new Employee();
+    employee.setUuid(uuid);
+    employee.setEmail("john@doe");
+    employee.setBirthday("1990-01-01");
+    when(employeeRepository.deleteReturning(uuid)).thenReturn(Optional.of(employee));
+
+    employeeService.delete(uuid);
+
+    ArgumentCaptor<EmployeeEvent> event = ArgumentCaptor.forClass(EmployeeEvent.class);
+    verify(employeeEventPublisher).publish(event.capture());
+    assertEquals(EventTypes.DELETED, event.getValue().getEventType());
+    assertEquals("john@doe", event.getValue().getEmail());
+    verify(employeeRepository).deleteReturning(uuid);
+    verifyNoMoreInteractions(employeeRepository);
+    verify(idempotencyService).recordOutcome(uuid);
+    assertEquals(1, meterRegistry.counter("employee.events", "type", "DELETED").count());
+    assertEquals(0, meterRegistry.counter("employee.events", "type", "CREATED").count());
+    assertEquals(1, meterRegistry.timer("employee.events.publish").count());
+  }
+
+  @Test
+  void deleteUnknownIsNotFound() {
+    UUID uuid = UUID.randomUUID();
+    when(employeeRepository.deleteReturning(uuid)).thenReturn(Optional.empty());
+
+    assertThrows(NotFoundException.class, () -> employeeService.delete(uuid));
+    verify(employeeEventPublisher, never()).publish(any());
+    verify(idempotencyService, never()).recordOutcome(any());
+  }
+
+  private static EmployeePatch patch(String json) throws Exception {
+    return new ObjectMapper().readValue(json, EmployeePatch.class);
+  }
+
+  private static EmployeeDTO employee(String email) {
+    EmployeeDTO employeeDTO = new EmployeeDTO();
+    employeeDTO.setEmail(email);
+    employeeDTO.setFullName("John Doe");
+    employeeDTO.setBirthday("1990-01-01");
+    return employeeDTO;
+  }
+}
@@ -0,0 +1,173 @@
+package com.example.employee.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.employee.util.NotFoundException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.web.server.ResponseStatusException;
+
+class IdempotencyServiceTest {
+
+  private static final String REQUEST = "POST /api/employees";
+
+  private JdbcTemplate jdbcTemplate;
+  private IdempotencyService idempotencyService;
+  private final AtomicInteger calls = new AtomicInteger();
+  private final UUID uuid = UUID.randomUUID();
+
+  @BeforeEach
+  void setUp() {
+    jdbcTemplate = mock(JdbcTemplate.class);
+    idempotencyService = new IdempotencyService(jdbcTemplate, new ObjectMapper(),
+        new SimpleMeterRegistry(), 24, 60_000, 100);
+    when(jdbcTemplate.update(startsWith("INSERT"), any(), any(), any())).thenReturn(1);
+  }
+
+  @Test
+  void retryIsAnsweredFromMemory() {
+    assertEquals(uuid, idempotencyService.execute("key", REQUEST, Map.of("a", 1), this::create));
+    assertEquals(uuid, idempotencyService.execute("key", REQUEST, Map.of("a", 1), this::create));
+
+    assertEquals(1, calls.get());
+    verify(jdbcTemplate).update(startsWith("UPDATE"), eq(uuid), eq("key"));
+  }
+
+  @Test
+  void outcomeRecordedByTheWriteIsNotRecordedAgain() {
+    idempotencyService.execute("key", REQUEST, null, () -> {
+      idempotencyService.recordOutcome(uuid);
+      return create();
+    });
+
+    verify(jdbcTemplate, times(1)).update(startsWith("UPDATE"), eq(uuid), eq("key"));
+  }
+
+  @Test
+  void outcomeWithoutClaimedKeyIsNotRecorded() {
+    idempotencyService.execute("key", REQUEST, null, this::create);
+    UUID other = UUID.randomUUID();
+
+    idempotencyService.recordOutcome(other);
+
+    verify(jdbcTemplate, never()).update(startsWith("UPDATE"), eq(other), any());
+  }
+
+  @Test
+  void keyReusedForAnotherRequestIsRejected() {
+    idempotencyService.execute("key", REQUEST, Map.of("a", 1), this::create);
+
+    ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+        () -> idempotencyService.execute("key", REQUEST, Map.of("a", 2), this::create));
+
+    assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, exception.getStatusCode());
+    assertEquals(1, calls.get());
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  void keyCompletedOnAnotherInstanceIsReplayedFromTheTable() throws Exception {
+    idempotencyService.execute("key", REQUEST, Map.of("a", 1), this::create);
+    ArgumentCaptor<byte[]> fingerprint = ArgumentCaptor.forClass(byte[].class);
+    verify(jdbcTemplate).update(startsWith("INSERT"), eq("key"), fingerprint.capture(), any());
+    ResultSet row = mock(ResultSet.class);
+    when(row.getBytes("fingerprint")).thenReturn(fingerprint.getValue());
+    when(row.getObject("employee_uuid", UUID.class)).thenReturn(uuid);
+    JdbcTemplate otherJdbcTemplate = mock(JdbcTemplate.class);
+    when(otherJdbcTemplate.update(startsWith("INSERT"), any(), any(), any())).thenReturn(0);
+    when(otherJdbcTemplate.query(anyString(), any(RowMapper.class), eq("key"))).thenAnswer(
+        invocation -> List.of(invocation.getArgument(1, RowMapper.class).mapRow(row, 0)));
+    IdempotencyService otherInstance = new IdempotencyService(otherJdbcTemplate,
+        new ObjectMapper(), new SimpleMeterRegistry(), 24, 60_000, 100);
+
+    assertEquals(uuid, otherInstance.execute("key", REQUEST, Map.of("a", 1), this::create));
+    assertEquals(1, calls.get());
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  void keyInProgressOnAnotherInstanceIsAConflict() {
+    when(jdbcTemplate.update(startsWith("INSERT"), any(), any(), any())).thenReturn(0);
+    when(jdbcTemplate.query(anyString(), any(RowMapper.class), eq("key"))).thenReturn(List.of());
+
+    ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+        () -> idempotencyService.execute("key", REQUEST, Map.of("a", 1), this::create));
+
+    assertEquals(HttpStatus.CONFLICT, exception.getStatusCode());
+  }
+
+  @Test
+  void failedRequestReleasesItsKey() {
+    assertThrows(NotFoundException.class, () -> idempotencyService.execute("key", REQUEST, null,
+        () -> {
+          throw new NotFoundException();
+        }));
+    verify(jdbcTemplate).update(startsWith("DELETE"), eq("key"));
+    verify(jdbcTemplate, never()).update(startsWith("UPDATE"), any(), any());
+
+    assertEquals(uuid, idempotencyService.execute("key", REQUEST, null, this::create));
+  }
+
+  @Test
+  void concurrentRequestsWithTheSameKeyRunOnce() throws Exception {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      Future<UUID> first = executor.submit(() -> idempotencyService.execute("key", REQUEST, null,
+          () -> {
+            started.countDown();
+            await(release);
+            return create();
+          }));
+      started.await();
+      Future<UUID> second = executor.submit(() ->
+          idempotencyService.execute("key", REQUEST, null, this::create));
+      release.countDown();
+
+      assertEquals(uuid, first.get());
+      assertEquals(uuid, second.get());
+      assertEquals(1, calls.get());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private UUID create() {
+    calls.incrementAndGet();
+    return uuid;
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await();
+    } catch (InterruptedException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
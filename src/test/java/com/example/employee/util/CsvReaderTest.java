@@ -0,0 +1,42 @@
+package com.example.employee.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class CsvReaderTest {
+
+  @Test
+  void readsPlainAndQuotedFields() throws IOException {
+    CsvReader reader = new CsvReader(new StringReader(
+        "email,fullName\r\njohn@doe,\"Doe, John\"\n\"say \"\"hi\"\"\",\"two\nlines\"\n,\n"));
+
+    assertEquals(List.of("email", "fullName"), reader.readRecord());
+    assertEquals(2, reader.getLineNumber());
+    assertEquals(List.of("john@doe", "Doe, John"), reader.readRecord());
+    assertEquals(List.of("say \"hi\"", "two\nlines"), reader.readRecord());
+    assertEquals(5, reader.getLineNumber());
+    assertEquals(List.of("", ""), reader.readRecord());
+    assertNull(reader.readRecord());
+  }
+
+  @Test
+  void lastRecordWithoutLineBreak() throws IOException {
+    CsvReader reader = new CsvReader(new StringReader("a,b"));
+
+    assertEquals(List.of("a", "b"), reader.readRecord());
+    assertNull(reader.readRecord());
+  }
+
+  @Test
+  void unterminatedQuoteFails() {
+    CsvReader reader = new CsvReader(new StringReader("\"open,field\n"));
+
+    assertThrows(IOException.class, reader::readRecord);
+  }
+}
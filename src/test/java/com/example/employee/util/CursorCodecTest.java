@@ -0,0 +1,44 @@
+package com.example.employee.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+class CursorCodecTest {
+
+  @Test
+  void roundTrip() {
+    UUID uuid = UUID.randomUUID();
+    assertEquals(uuid, CursorCodec.decode(CursorCodec.encode(uuid)));
+  }
+
+  @Test
+  void absentCursorIsFirstPage() {
+    assertNull(CursorCodec.decode(null));
+    assertNull(CursorCodec.decode(""));
+  }
+
+  @Test
+  void rejectsForeignCursor() {
+    assertThrows(IllegalArgumentException.class, () -> CursorCodec.decode("not a cursor"));
+    assertThrows(IllegalArgumentException.class, () -> CursorCodec.decode("AAAA"));
+  }
+
+  @Test
+  void watermarkRoundTrip() {
+    CursorCodec.Watermark watermark = new CursorCodec.Watermark(
+        OffsetDateTime.of(2024, 5, 6, 7, 8, 9, 123_456_000, ZoneOffset.UTC), UUID.randomUUID());
+    assertEquals(watermark, CursorCodec.decodeWatermark(CursorCodec.encodeWatermark(watermark)));
+  }
+
+  @Test
+  void rejectsCursorAsWatermark() {
+    assertThrows(IllegalArgumentException.class,
+        () -> CursorCodec.decodeWatermark(CursorCodec.encode(UUID.randomUUID())));
+  }
+}